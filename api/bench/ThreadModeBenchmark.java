@@ -0,0 +1,181 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop login/refresh driver used by compare-thread-modes.sh.
+ * Every worker owns one provisioned account (bench-N@example.com), because a login revokes the account's other
+ * refresh tokens. Each iteration is one login followed by a few refreshes with the returned cookie.
+ *
+ * Usage: java ThreadModeBenchmark.java <baseUrl> <accounts> <durationSeconds> <warmupSeconds> <label>
+ */
+public class ThreadModeBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+    private static final int REFRESHES_PER_LOGIN = 4;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final Map<String, List<long[]>> samples = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    private ThreadModeBenchmark(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            System.err.println("Usage: java ThreadModeBenchmark.java <baseUrl> <accounts> <durationSeconds> <warmupSeconds> <label>");
+            System.exit(1);
+        }
+        int accounts = Integer.parseInt(args[1]);
+        int duration = Integer.parseInt(args[2]);
+        int warmup = Integer.parseInt(args[3]);
+        new ThreadModeBenchmark(args[0]).run(accounts, warmup, duration, args[4]);
+    }
+
+    private void run(int accounts, int warmupSeconds, int durationSeconds, String label) throws Exception {
+        List<Worker> workers = new ArrayList<>();
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 1; i <= accounts; i++) {
+            Worker worker = new Worker("bench-" + i + "@example.com");
+            workers.add(worker);
+            pool.submit(worker);
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        recording = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+
+        workers.forEach(Worker::flush);
+        System.out.printf("%-10s %-8s %10s %8s %10s %9s %9s %9s%n", "mode", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (String endpoint : List.of("login", "refresh")) {
+            long[] latencies = samples.getOrDefault(endpoint, List.of()).stream()
+                    .flatMapToLong(Arrays::stream)
+                    .sorted()
+                    .toArray();
+            long failed = errors.getOrDefault(endpoint, new LongAdder()).sum();
+            System.out.printf("%-10s %-8s %10d %8d %10.1f %9.2f %9.2f %9.2f%n",
+                    label, endpoint, latencies.length, failed, latencies.length / elapsedSeconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private class Worker implements Runnable {
+
+        private final String email;
+        private final Map<String, long[]> buffers = new ConcurrentHashMap<>();
+        private final Map<String, Integer> sizes = new ConcurrentHashMap<>();
+
+        Worker(String email) {
+            this.email = email;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                String cookie = login();
+                for (int i = 0; cookie != null && i < REFRESHES_PER_LOGIN && running; i++) {
+                    refresh(cookie);
+                }
+            }
+        }
+
+        private String login() {
+            var request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+                    .build();
+            var response = send("login", request);
+            if (response == null) {
+                return null;
+            }
+            return response.headers().allValues("Set-Cookie").stream()
+                    .filter(header -> header.startsWith("refreshToken="))
+                    .map(header -> header.substring(0, header.indexOf(';')))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        private void refresh(String cookie) {
+            var request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/refresh-token"))
+                    .header("Cookie", cookie)
+                    .GET()
+                    .build();
+            send("refresh", request);
+        }
+
+        private HttpResponse<String> send(String endpoint, HttpRequest request) {
+            long start = System.nanoTime();
+            try {
+                var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                long elapsed = System.nanoTime() - start;
+                if (response.statusCode() != 200) {
+                    recordError(endpoint);
+                    return null;
+                }
+                recordLatency(endpoint, elapsed);
+                return response;
+            } catch (Exception e) {
+                recordError(endpoint);
+                return null;
+            }
+        }
+
+        private void recordLatency(String endpoint, long nanos) {
+            if (!recording) {
+                return;
+            }
+            long[] buffer = buffers.computeIfAbsent(endpoint, key -> new long[1024]);
+            int size = sizes.getOrDefault(endpoint, 0);
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+                buffers.put(endpoint, buffer);
+            }
+            buffer[size] = nanos;
+            sizes.put(endpoint, size + 1);
+        }
+
+        private void recordError(String endpoint) {
+            if (recording) {
+                errors.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+            }
+        }
+
+        void flush() {
+            buffers.forEach((endpoint, buffer) -> samples
+                    .computeIfAbsent(endpoint, key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(Arrays.copyOf(buffer, sizes.get(endpoint))));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Runs the login/refresh benchmark against the API twice, once on platform threads and once on virtual threads,
+# and writes one result table per mode to bench/results/.
+#
+# Requires JDK 21 and psql. The same SPRING_DATASOURCE_*, JWT_SECRET_KEY, VERIFICATION_HMAC_KEY, SUPPORT_EMAIL and APP_PASSWORD
+# environment the API normally runs with must be set; the schema is recreated on every start (ddl-auto create-drop).
+#
+#   ACCOUNTS     concurrent workers, one account each (default 64)
+#   DURATION     measured seconds per mode (default 60)
+#   WARMUP       unmeasured seconds per mode (default 20)
+#   TOMCAT_MAX   max Tomcat threads in platform mode (default 200, Spring Boot's default)
+set -euo pipefail
+
+ACCOUNTS=${ACCOUNTS:-64}
+DURATION=${DURATION:-60}
+WARMUP=${WARMUP:-20}
+TOMCAT_MAX=${TOMCAT_MAX:-200}
+PORT=${PORT:-8080}
+# bcrypt of "benchmark-password" at cost 10; the API rehashes it to its calibrated cost on first login.
+PASSWORD_HASH='$2a$10$2gUOEfVOWZ2//i9HuUyQ3.dRsZAGzeQ9m7AHWRgG3wmxpoOVisV5K'
+
+cd "$(dirname "$0")/.."
+mkdir -p bench/results
+./mvnw -q -DskipTests package
+JAR=$(ls target/lp-auth-platform-*-exec.jar | head -n 1)
+
+PSQL_URL=${SPRING_DATASOURCE_URL#jdbc:}
+export PGUSER=$SPRING_DATASOURCE_USERNAME PGPASSWORD=$SPRING_DATASOURCE_PASSWORD
+
+for virtual in false true; do
+  label=$([ "$virtual" = true ] && echo virtual || echo platform)
+  VIRTUAL_THREADS_ENABLED=$virtual VIRTUAL_THREAD_PINNING_DIAGNOSTICS=$virtual \
+    java -jar "$JAR" --server.port="$PORT" --server.tomcat.threads.max="$TOMCAT_MAX" > "bench/results/app-$label.log" 2>&1 &
+  app=$!
+  trap 'kill $app 2>/dev/null || true' EXIT
+
+  until curl -sf "http://localhost:$PORT/api/v1/auth/userEnabled?id=0" > /dev/null; do
+    kill -0 $app 2>/dev/null || { echo "API failed to start, see bench/results/app-$label.log"; exit 1; }
+    sleep 1
+  done
+
+  psql "$PSQL_URL" -q -c "
+    INSERT INTO users (id, email, password, enabled, role)
+    SELECT nextval('users_seq'), 'bench-' || n || '@example.com', '$PASSWORD_HASH', true, 'USER'
+    FROM generate_series(1, $ACCOUNTS) AS n
+    ON CONFLICT (email) DO NOTHING;"
+
+  java bench/ThreadModeBenchmark.java "http://localhost:$PORT" "$ACCOUNTS" "$DURATION" "$WARMUP" "$label" \
+    | tee "bench/results/$label.txt"
+
+  kill $app
+  wait $app 2>/dev/null || true
+  trap - EXIT
+done
+
+echo
+echo "Pinning events (virtual mode) are summarised at shutdown in bench/results/app-virtual.log"
+cat bench/results/platform.txt bench/results/virtual.txt
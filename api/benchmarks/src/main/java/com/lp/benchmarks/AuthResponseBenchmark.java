@@ -0,0 +1,63 @@
+package com.lp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.dto.AuthenticationResponse;
+import com.lp.enums.Role;
+import com.lp.services.AuthResponseWriter;
+import com.lp.services.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// The cookie and JSON body written after login, verify and refresh.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthResponseBenchmark {
+
+    private JwtService jwtService;
+    private AuthResponseWriter writer;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = Fixtures.jwtService("HS256");
+        writer = new AuthResponseWriter(jwtService, new ObjectMapper());
+        accessToken = jwtService.generateAccessToken(Fixtures.principal());
+        refreshToken = jwtService.generateRefreshToken(Fixtures.principal());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authResponseWriter() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(response, accessToken, refreshToken, Fixtures.EMAIL, Role.USER);
+        return response;
+    }
+
+    // The previous AuthService.setResponseAuthData, which built an ObjectMapper per response; kept as the baseline.
+    @Benchmark
+    public MockHttpServletResponse objectMapperPerResponse() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseCookie refreshCookie = ResponseCookie.from("refreshToken", refreshToken)
+                .httpOnly(true)
+                .path("/api/v1/auth")
+                .maxAge(jwtService.getRefreshTokenExpiration())
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, refreshCookie.toString());
+        var authResponse = AuthenticationResponse.builder()
+                .accessToken(accessToken)
+                .userEmail(Fixtures.EMAIL)
+                .role(Role.USER)
+                .build();
+        new ObjectMapper().writeValue(response.getOutputStream(), authResponse);
+        return response;
+    }
+}
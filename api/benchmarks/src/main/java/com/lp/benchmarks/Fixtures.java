@@ -0,0 +1,85 @@
+package com.lp.benchmarks;
+
+import com.lp.config.ReplicaProperties;
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.SigningKey;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.repository.SessionEpochRepository;
+import com.lp.repository.SigningKeyRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.AuthMetrics;
+import com.lp.services.JwtKeyRing;
+import com.lp.services.JwtService;
+import com.lp.services.ReadYourWrites;
+import com.lp.services.SessionEpochService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Wires the services by hand with the same settings as application.yml, without a Spring context or database.
+final class Fixtures {
+
+    static final String SECRET_KEY = "bHAtYXV0aC1wbGF0Zm9ybS1iZW5jaG1hcmstc2VjcmV0LWtleS0wMTIzNDU2Nzg5";
+    static final String KEY_ENCRYPTION_KEY = "bHAtYXV0aC1wbGF0Zm9ybS1iZW5jaC1rZXktMDEyMzQ=";
+    static final long ACCESS_EXPIRATION = 3_600_000;
+    static final long REFRESH_EXPIRATION = 86_400_000;
+    static final String EMAIL = "bench@example.com";
+    // Timers stay on, as in production, so their cost is part of every measurement.
+    static final AuthMetrics METRICS = new AuthMetrics(new SimpleMeterRegistry());
+    // No bumps, so every epoch check is a cache hit after the first request.
+    static final SessionEpochService SESSION_EPOCHS = new SessionEpochService(mock(UserRepository.class),
+            mock(SessionEpochRepository.class), new ReadYourWrites(new ReplicaProperties()), Duration.ofSeconds(10), 100_000);
+
+    private Fixtures() {
+    }
+
+    static JwtService jwtService(String algorithm) {
+        List<SigningKey> keys = new ArrayList<>();
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.findByExpiresAtAfterOrderByActivatesAtDesc(any())).thenAnswer(inv -> keys.stream()
+                .sorted(Comparator.comparing(SigningKey::getActivatesAt).reversed())
+                .toList());
+        when(repository.save(any())).thenAnswer(inv -> {
+            keys.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+
+        JwtKeyRing keyRing = new JwtKeyRing(repository);
+        ReflectionTestUtils.setField(keyRing, "algorithm", algorithm);
+        ReflectionTestUtils.setField(keyRing, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(keyRing, "rotationInterval", Duration.ofDays(7));
+        ReflectionTestUtils.setField(keyRing, "prepublish", Duration.ofHours(1));
+        ReflectionTestUtils.setField(keyRing, "overlap", Duration.ofHours(26));
+        ReflectionTestUtils.setField(keyRing, "keyEncryptionKey", KEY_ENCRYPTION_KEY);
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+
+        JwtService jwtService = new JwtService(keyRing, METRICS, SESSION_EPOCHS);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", ACCESS_EXPIRATION);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", REFRESH_EXPIRATION);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    static User user(String password) {
+        return User.builder()
+                .id(42)
+                .email(EMAIL)
+                .password(password)
+                .enabled(true)
+                .role(Role.USER)
+                .build();
+    }
+
+    static UserPrincipal principal() {
+        return UserPrincipal.from(user("{noop}unused"));
+    }
+}
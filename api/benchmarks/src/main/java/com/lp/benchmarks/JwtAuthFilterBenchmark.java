@@ -0,0 +1,97 @@
+package com.lp.benchmarks;
+
+import com.lp.config.ReplicaProperties;
+import com.lp.dto.TokenClaims;
+import com.lp.dto.UserPrincipal;
+import com.lp.filters.JwtAuthFilter;
+import com.lp.repository.UserRepository;
+import com.lp.services.AccessTokenDenylist;
+import com.lp.services.CachedUserDetailsService;
+import com.lp.services.JwtService;
+import com.lp.services.LoginAttemptService;
+import com.lp.services.ReadYourWrites;
+import com.lp.services.VerifiedTokenCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// One authenticated request through JwtAuthFilter with a no-op chain, from header parsing to the security context.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    // Whether the signature check is served from VerifiedTokenCache or runs on every request.
+    @Param({"true", "false"})
+    public boolean verifiedCache;
+
+    // Stateless requests build the principal from claims; the others go through CachedUserDetailsService.
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    private JwtAuthFilter filter;
+    private String authorization;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        JwtService jwtService = Fixtures.jwtService(algorithm);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findPrincipalByEmail(Fixtures.EMAIL)).thenReturn(Optional.of(UserPrincipal.from(Fixtures.user("{noop}unused"))));
+        LoginAttemptService loginAttempts = new LoginAttemptService(
+                1000, Duration.ofMinutes(15), 5, 20, Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofHours(1));
+        CachedUserDetailsService userDetailsService =
+                new CachedUserDetailsService(userRepository, loginAttempts, Fixtures.METRICS,
+                        new ReadYourWrites(new ReplicaProperties()), 10_000, Duration.ofMinutes(5));
+
+        VerifiedTokenCache cache = verifiedCache ? new VerifiedTokenCache(50_000) : new VerifiedTokenCache(1) {
+            @Override
+            public TokenClaims get(String jwt, Function<String, TokenClaims> verifier) {
+                return verifier.apply(jwt);
+            }
+        };
+
+        filter = new JwtAuthFilter(jwtService, userDetailsService, cache,
+                new AccessTokenDenylist(1 << 20, 3), Fixtures.METRICS, Fixtures.SESSION_EPOCHS);
+        ReflectionTestUtils.setField(filter, "stateless", stateless);
+        ReflectionTestUtils.setField(filter, "userLookupPaths", List.of());
+
+        authorization = "Bearer " + jwtService.generateAccessToken(Fixtures.principal());
+        chain = (request, response) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,56 @@
+package com.lp.benchmarks;
+
+import com.lp.dto.TokenClaims;
+import com.lp.dto.UserPrincipal;
+import com.lp.services.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "ES256", "RS256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private UserPrincipal principal;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = Fixtures.jwtService(algorithm);
+        principal = Fixtures.principal();
+        accessToken = jwtService.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(principal);
+    }
+
+    @Benchmark
+    public TokenClaims validateToken() {
+        return jwtService.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(accessToken);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(accessToken, principal);
+    }
+}
@@ -0,0 +1,119 @@
+package com.lp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.config.RateLimitProperties;
+import com.lp.filters.RateLimitFilter;
+import com.lp.services.ClientAddressResolver;
+import com.lp.services.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// One login request through RateLimitFilter with a no-op chain that reads the replayed body, limits never reached.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    // Where the account arrives: a request parameter, a small JSON body, or a JSON body with a large field after it.
+    @Param({"parameter", "body", "largeBody"})
+    public String account;
+
+    private RateLimitFilter filter;
+    private byte[] body;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Endpoint login = new RateLimitProperties.Endpoint();
+        login.setPath("/api/v1/auth/login");
+        login.setAccountField("email");
+        login.setPerIp(unlimited());
+        login.setPerAccount(unlimited());
+        properties.getEndpoints().put("login", login);
+        filter = new RateLimitFilter(new RateLimiter(properties), properties, new ObjectMapper(), new ClientAddressResolver());
+
+        String padding = account.equals("largeBody") ? ",\"device\":\"" + "x".repeat(12 * 1024) + "\"" : "";
+        body = ("{\"email\":\"" + Fixtures.EMAIL + "\",\"password\":\"secret\"" + padding + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        chain = (request, response) -> blackhole.consume(request.getInputStream().readAllBytes());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login") {
+            // Bulk reads like the container's stream; the mock's own stream reads byte by byte and would dominate.
+            private final ServletInputStream in = new BodyStream(body);
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return in;
+            }
+        };
+        request.setRemoteAddr("10.0.0.1");
+        request.setContentType("application/json");
+        if (account.equals("parameter")) {
+            request.setParameter("email", Fixtures.EMAIL);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static final class BodyStream extends ServletInputStream {
+
+        private final ByteArrayInputStream in;
+
+        BodyStream(byte[] body) {
+            this.in = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    // Refills a token every nanosecond, so the filter always lets the request through.
+    private static RateLimitProperties.Limit unlimited() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(1_000_000_000);
+        limit.setPeriod(Duration.ofSeconds(1));
+        return limit;
+    }
+}
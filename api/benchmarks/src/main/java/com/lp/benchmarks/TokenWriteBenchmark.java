@@ -0,0 +1,163 @@
+package com.lp.benchmarks;
+
+import com.lp.LpAuthPlatformApplication;
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.Token;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.RefreshTokenService;
+import com.lp.services.SessionEpochService;
+import com.lp.services.TokenHasher;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Token writes through the application's own repositories and transaction settings. Runs against in-memory H2 by
+ * default, which has no network round trip; set -Dbench.jdbc.url (and .username / .password) to a PostgreSQL
+ * database to measure what batching saves on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenWriteBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int TOKENS_PER_TRANSACTION = 100;
+
+    // 1 disables JDBC batching, which is how IDENTITY ids behaved.
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private RefreshTokenService refreshTokenService;
+    private SessionEpochService sessionEpochService;
+    private TokenRepository tokenRepository;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<UserPrincipal> principals;
+    private List<Integer> userIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.mail.host=localhost",
+                "--spring.mail.username=bench@example.com",
+                "--spring.mail.password=unused",
+                "--security.jwt.secret-key=" + Fixtures.SECRET_KEY,
+                "--verification.code.hmac-key=" + Fixtures.SECRET_KEY,
+                "--security.token-purge.enabled=false",
+                "--email.outbox.poll-interval=3600000",
+                "--logging.level.root=WARN"));
+        String url = System.getProperty("bench.jdbc.url");
+        if (url == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.jpa.database=h2",
+                    "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"));
+        } else {
+            args.addAll(List.of(
+                    "--spring.datasource.url=" + url,
+                    "--spring.datasource.username=" + System.getProperty("bench.jdbc.username", ""),
+                    "--spring.datasource.password=" + System.getProperty("bench.jdbc.password", "")));
+        }
+        context = new SpringApplicationBuilder(LpAuthPlatformApplication.class).run(args.toArray(String[]::new));
+        refreshTokenService = context.getBean(RefreshTokenService.class);
+        sessionEpochService = context.getBean(SessionEpochService.class);
+        tokenRepository = context.getBean(TokenRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<User> users = transactionTemplate.execute(status -> userRepository.saveAll(IntStream.range(0, USERS)
+                .mapToObj(i -> User.builder()
+                        .email("bench-" + i + "-" + UUID.randomUUID() + "@example.com")
+                        .password("{noop}unused")
+                        .role(Role.USER)
+                        .enabled(true)
+                        .build())
+                .toList()));
+        principals = users.stream().map(UserPrincipal::from).toList();
+        userIds = users.stream().map(User::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    // One login's writes: revoke the user's refresh tokens, insert the new one, commit.
+    @Benchmark
+    public String login() {
+        return refreshTokenService.issue(principals.get(ThreadLocalRandom.current().nextInt(USERS)));
+    }
+
+    // Many token rows in one transaction, where JDBC batching turns row-per-round-trip into one batch.
+    @Benchmark
+    @OperationsPerInvocation(TOKENS_PER_TRANSACTION)
+    public void issueInOneTransaction() {
+        int first = ThreadLocalRandom.current().nextInt(USERS - TOKENS_PER_TRANSACTION);
+        transactionTemplate.executeWithoutResult(status -> tokenRepository.saveAll(tokens(userIds.subList(first, first + TOKENS_PER_TRANSACTION))));
+    }
+
+    @State(Scope.Benchmark)
+    public static class OutstandingSessions {
+
+        // Every user gets a live refresh token again before each revocation.
+        @Setup(Level.Invocation)
+        public void issue(TokenWriteBenchmark benchmark) {
+            benchmark.transactionTemplate.executeWithoutResult(status -> benchmark.tokenRepository.saveAll(benchmark.tokens(benchmark.userIds)));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public int massRevocation(OutstandingSessions sessions) {
+        return refreshTokenService.revokeAllForUsers(userIds);
+    }
+
+    // The same outcome through session epochs: one update per user batch, whatever the token count.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public int massInvalidation(OutstandingSessions sessions) {
+        return sessionEpochService.invalidateUsers(userIds);
+    }
+
+    private List<Token> tokens(List<Integer> owners) {
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        return owners.stream()
+                .map(id -> Token.builder()
+                        .user(userRepository.getReferenceById(id))
+                        .tokenHash(TokenHasher.sha256Hex(UUID.randomUUID().toString()))
+                        .tokenType(TokenType.REFRESH)
+                        .expiresAt(expiresAt)
+                        .family(UUID.randomUUID().toString())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,153 @@
+package com.lp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Drives one account through register, email, verify, login, an authenticated call, refreshes and logout.
+class LifecycleClient {
+
+    static final String REGISTER = "register";
+    static final String EMAIL = "email";
+    static final String VERIFY = "verify";
+    static final String LOGIN = "login";
+    static final String ACCESS = "access";
+    static final String REFRESH = "refresh";
+    static final String LOGOUT = "logout";
+    static final String[] STAGES = {REGISTER, EMAIL, VERIFY, LOGIN, ACCESS, REFRESH, LOGOUT};
+
+    private static final String PASSWORD = "load-test-password";
+    private static final Duration EMAIL_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final MailCatcher mail;
+    private final StageMetrics metrics;
+    private final int refreshes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LifecycleClient(HttpClient http, String baseUrl, MailCatcher mail, StageMetrics metrics, int refreshes) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.mail = mail;
+        this.metrics = metrics;
+        this.refreshes = refreshes;
+    }
+
+    private static final class StageFailed extends Exception {
+        StageFailed(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private record Session(String accessToken, String refreshToken) {
+    }
+
+    /** Returns true if every stage succeeded. Failures are counted against the stage that failed. */
+    boolean run(String email) {
+        var verification = mail.expect(email);
+        String stage = REGISTER;
+        try {
+            long start = System.nanoTime();
+            expectOk(send(post("/api/v1/auth/register", Map.of("email", email, "password", PASSWORD))));
+            long registered = System.nanoTime();
+            metrics.record(REGISTER, registered - start);
+
+            stage = EMAIL;
+            MailCatcher.Verification code = verification.get(EMAIL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            metrics.record(EMAIL, System.nanoTime() - registered);
+
+            stage = VERIFY;
+            timed(VERIFY, () -> session(send(post("/api/v1/auth/verify?id=" + code.userId(), Map.of("verificationCode", code.code())))));
+
+            stage = LOGIN;
+            Session session = timed(LOGIN, () -> session(send(post("/api/v1/auth/login", Map.of("email", email, "password", PASSWORD)))));
+
+            stage = ACCESS;
+            timed(ACCESS, () -> expectOk(send(HttpRequest.newBuilder(uri("/api/v1/demo"))
+                    .header("Authorization", "Bearer " + session.accessToken())
+                    .GET())));
+
+            stage = REFRESH;
+            Session current = session;
+            for (int i = 0; i < refreshes; i++) {
+                Session previous = current;
+                current = timed(REFRESH, () -> session(send(HttpRequest.newBuilder(uri("/api/v1/auth/refresh-token"))
+                        .header("Cookie", "refreshToken=" + previous.refreshToken())
+                        .GET())));
+            }
+
+            stage = LOGOUT;
+            Session last = current;
+            timed(LOGOUT, () -> expectOk(send(HttpRequest.newBuilder(uri("/api/v1/auth/logout"))
+                    .header("Authorization", "Bearer " + last.accessToken())
+                    .header("Cookie", "refreshToken=" + last.refreshToken())
+                    .POST(HttpRequest.BodyPublishers.noBody()))));
+            return true;
+        } catch (StageFailed | IOException | ExecutionException | TimeoutException e) {
+            metrics.error(stage);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            mail.forget(email);
+        }
+    }
+
+    private interface Step<T> {
+        T run() throws StageFailed, IOException, InterruptedException;
+    }
+
+    private <T> T timed(String stage, Step<T> step) throws StageFailed, IOException, InterruptedException {
+        long start = System.nanoTime();
+        T result = step.run();
+        metrics.record(stage, System.nanoTime() - start);
+        return result;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder post(String path, Map<String, String> body) throws IOException {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static HttpResponse<String> expectOk(HttpResponse<String> response) throws StageFailed {
+        if (response.statusCode() / 100 != 2) {
+            throw new StageFailed("HTTP " + response.statusCode());
+        }
+        return response;
+    }
+
+    private Session session(HttpResponse<String> response) throws StageFailed, IOException {
+        expectOk(response);
+        JsonNode body = objectMapper.readTree(response.body());
+        String refreshToken = response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("refreshToken="))
+                .map(cookie -> cookie.substring("refreshToken=".length(), cookie.indexOf(';') < 0 ? cookie.length() : cookie.indexOf(';')))
+                .findFirst()
+                .orElseThrow(() -> new StageFailed("No refresh cookie"));
+        if (!body.hasNonNull("accessToken")) {
+            throw new StageFailed("No access token");
+        }
+        return new Session(body.get("accessToken").asText(), refreshToken);
+    }
+}
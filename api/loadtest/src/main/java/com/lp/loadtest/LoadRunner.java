@@ -0,0 +1,97 @@
+package com.lp.loadtest;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts lifecycles either at a fixed arrival rate (open model) or back to back from a fixed number of users
+ * (closed model). In the open model each lifecycle's latency is measured from when it was scheduled to start, so a
+ * saturated service shows up as latency and dropped arrivals instead of as a quietly lower request rate.
+ */
+class LoadRunner {
+
+    private final LifecycleClient client;
+    private final StageMetrics metrics;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    LoadRunner(LifecycleClient client, StageMetrics metrics) {
+        this.client = client;
+        this.metrics = metrics;
+    }
+
+    void run(LoadTestOptions options) throws InterruptedException {
+        long deadline = System.nanoTime() + options.duration().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (options.rate() > 0) {
+                openModel(executor, options, deadline);
+            } else {
+                for (int i = 0; i < options.concurrency(); i++) {
+                    executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            lifecycle(System.nanoTime());
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void openModel(ExecutorService executor, LoadTestOptions options, long deadline) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.concurrency());
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long next = System.nanoTime();
+        while (next < deadline) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = next;
+            next += interval;
+            if (!inFlight.tryAcquire()) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            executor.submit(() -> {
+                try {
+                    lifecycle(scheduled);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // Let in-flight lifecycles finish so their stages are counted.
+        inFlight.acquire(options.concurrency());
+    }
+
+    private void lifecycle(long scheduledStart) {
+        started.incrementAndGet();
+        String email = "lt-" + runId + "-" + sequence.incrementAndGet() + "@loadtest.local";
+        if (client.run(email)) {
+            metrics.record(StageMetrics.LIFECYCLE, System.nanoTime() - scheduledStart);
+            completed.incrementAndGet();
+        } else {
+            metrics.error(StageMetrics.LIFECYCLE);
+        }
+    }
+
+    long getStarted() {
+        return started.get();
+    }
+
+    long getCompleted() {
+        return completed.get();
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,104 @@
+package com.lp.loadtest;
+
+import com.lp.LpAuthPlatformApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpClient;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Load generator for the full account lifecycle. By default it boots the API in this JVM against an in-memory H2
+ * database and a local SMTP stand-in, so it needs neither PostgreSQL nor a mail account. Note that the generator
+ * then shares the machine's cores with the service under test.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        try (MailCatcher mail = new MailCatcher(options.smtpPort());
+             var httpExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String baseUrl = options.baseUrl();
+            if (baseUrl == null) {
+                context = startApplication(options);
+                baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            }
+            JdbcTemplate jdbc = context != null ? context.getBean(JdbcTemplate.class) : null;
+
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(httpExecutor)
+                    .build();
+            List<String> stageNames = new ArrayList<>(List.of(LifecycleClient.STAGES));
+            stageNames.add(StageMetrics.LIFECYCLE);
+            StageMetrics metrics = new StageMetrics(stageNames.toArray(String[]::new));
+            LoadRunner runner = new LoadRunner(new LifecycleClient(http, baseUrl, mail, metrics, options.refreshes()), metrics);
+
+            System.out.printf("Running %s against %s for %ds%n",
+                    options.rate() > 0 ? options.rate() + " lifecycles/s (max " + options.concurrency() + " in flight)" : options.concurrency() + " concurrent users",
+                    baseUrl, options.duration().toSeconds());
+            long start = System.nanoTime();
+            try (SoakMonitor monitor = new SoakMonitor(jdbc, options.sampleInterval(), sample -> {
+                if (options.soak()) {
+                    Report.printSample(System.out, sample);
+                }
+            })) {
+                runner.run(options);
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                monitor.sample();
+
+                var stages = metrics.snapshot();
+                Report.print(System.out, elapsed, runner, stages, monitor.getSamples());
+                Report.write(options.report(), options, elapsed, runner, stages, monitor.getSamples());
+                System.out.println("Report written to " + options.report().toAbsolutePath());
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.database=h2",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.mail.host=127.0.0.1",
+                "--spring.mail.port=" + options.smtpPort(),
+                "--spring.mail.username=noreply@loadtest.local",
+                "--spring.mail.password=unused",
+                "--spring.mail.properties.mail.smtp.auth=false",
+                "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                "--security.jwt.secret-key=" + Base64.getEncoder().encodeToString(secret),
+                "--verification.code.hmac-key=" + Base64.getEncoder().encodeToString(secret),
+                // Every virtual user comes from 127.0.0.1, which the per-IP limits would otherwise throttle.
+                "--security.rate-limit.enabled=false",
+                "--email.outbox.poll-interval=50",
+                "--logging.level.root=WARN"));
+        // Spring joins repeated arguments into a list, so an override has to replace the default rather than follow it.
+        for (String override : options.applicationArgs()) {
+            String name = override.substring(0, override.indexOf('=') < 0 ? override.length() : override.indexOf('='));
+            args.removeIf(arg -> arg.equals(name) || arg.startsWith(name + "="));
+            args.add(override);
+        }
+        return new SpringApplicationBuilder(LpAuthPlatformApplication.class).run(args.toArray(String[]::new));
+    }
+}
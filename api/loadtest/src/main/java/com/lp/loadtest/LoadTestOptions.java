@@ -0,0 +1,85 @@
+package com.lp.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line options, all in --name=value form. Options this class does not know are passed through to the
+ * in-process application, e.g. --spring.threads.virtual.enabled=true.
+ *
+ * @param baseUrl        target an already running instance instead of booting one in-process; it must send mail to
+ *                       the stand-in on smtpPort
+ * @param rate           lifecycles started per second (open model); 0 runs concurrency users back to back instead
+ * @param concurrency    most lifecycles in flight at once; arrivals beyond it are counted as dropped
+ * @param refreshes      refresh-token rotations per lifecycle
+ * @param soak           print heap and table samples as the run progresses and report their growth
+ */
+record LoadTestOptions(
+        String baseUrl,
+        Duration duration,
+        double rate,
+        int concurrency,
+        int refreshes,
+        boolean soak,
+        Duration sampleInterval,
+        int smtpPort,
+        Path report,
+        List<String> applicationArgs
+) {
+
+    static LoadTestOptions parse(String[] args) {
+        String baseUrl = null;
+        Duration duration = null;
+        double rate = 20;
+        int concurrency = 64;
+        int refreshes = 3;
+        boolean soak = false;
+        Duration sampleInterval = Duration.ofSeconds(10);
+        int smtpPort = 3025;
+        Path report = Path.of("target", "loadtest-report.json");
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            switch (name) {
+                case "--base-url" -> baseUrl = value;
+                case "--duration" -> duration = parseDuration(value);
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--refreshes" -> refreshes = Integer.parseInt(value);
+                case "--soak" -> soak = Boolean.parseBoolean(value);
+                case "--sample-interval" -> sampleInterval = parseDuration(value);
+                case "--smtp-port" -> smtpPort = Integer.parseInt(value);
+                case "--report" -> report = Path.of(value);
+                default -> {
+                    if (!arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown argument: " + arg);
+                    }
+                    applicationArgs.add(arg);
+                }
+            }
+        }
+        if (duration == null) {
+            duration = soak ? Duration.ofMinutes(30) : Duration.ofMinutes(1);
+        }
+        return new LoadTestOptions(baseUrl, duration, rate, concurrency, refreshes, soak, sampleInterval, smtpPort, report, applicationArgs);
+    }
+
+    // Accepts ISO-8601 (PT30S) or a number with an s, m or h suffix.
+    private static Duration parseDuration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> Duration.ofSeconds(Long.parseLong(value));
+        };
+    }
+}
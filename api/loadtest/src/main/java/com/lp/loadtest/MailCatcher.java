@@ -0,0 +1,111 @@
+package com.lp.loadtest;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.user.GreenMailUser;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.BodyPart;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Local SMTP stand-in that pulls the verification code and user id out of each email as it is delivered.
+class MailCatcher implements AutoCloseable {
+
+    record Verification(int userId, String code) {
+    }
+
+    private static final Pattern CODE = Pattern.compile("verification-code\"[^>]*>\\s*<p[^>]*>\\s*(\\d{6})\\s*</p>");
+    private static final Pattern USER_ID = Pattern.compile("/verify/(\\d+)");
+    // Parsed messages are dropped from the sink mailbox in batches so a soak run does not grow the stand-in's heap.
+    private static final long PURGE_EVERY = 1000;
+
+    private final GreenMail greenMail;
+    private final GreenMailUser sink;
+    private final Map<String, CompletableFuture<Verification>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong delivered = new AtomicLong();
+
+    MailCatcher(int port) {
+        greenMail = new GreenMail(new ServerSetup(port, "127.0.0.1", ServerSetup.PROTOCOL_SMTP))
+                .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+        greenMail.start();
+        sink = greenMail.setUser("sink@loadtest.local", "sink");
+        greenMail.getUserManager().setMessageDeliveryHandler((message, address) -> {
+            CompletableFuture<Verification> verification = expect(address.getEmail());
+            try {
+                verification.complete(parse(message.getMessage()));
+            } catch (MessagingException e) {
+                verification.completeExceptionally(e);
+            }
+            if (delivered.incrementAndGet() % PURGE_EVERY == 0) {
+                purge();
+            }
+            return sink;
+        });
+    }
+
+    CompletableFuture<Verification> expect(String email) {
+        return pending.computeIfAbsent(email.toLowerCase(), k -> new CompletableFuture<>());
+    }
+
+    void forget(String email) {
+        pending.remove(email.toLowerCase());
+    }
+
+    long getDelivered() {
+        return delivered.get();
+    }
+
+    private Verification parse(Part message) throws MessagingException {
+        String html;
+        try {
+            html = text(message);
+        } catch (IOException e) {
+            throw new MessagingException("Unreadable verification email", e);
+        }
+        Matcher code = CODE.matcher(html);
+        Matcher userId = USER_ID.matcher(html);
+        if (!code.find() || !userId.find()) {
+            throw new MessagingException("No verification code in email");
+        }
+        return new Verification(Integer.parseInt(userId.group(1)), code.group(1));
+    }
+
+    private static String text(Part part) throws MessagingException, IOException {
+        Object content = part.getContent();
+        if (content instanceof String text) {
+            return text;
+        }
+        if (content instanceof Multipart multipart) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < multipart.getCount(); i++) {
+                BodyPart body = multipart.getBodyPart(i);
+                text.append(text(body));
+            }
+            return text.toString();
+        }
+        return "";
+    }
+
+    private void purge() {
+        try {
+            greenMail.purgeEmailFromAllMailboxes();
+        } catch (FolderException e) {
+            // Only costs memory; the next purge tries again.
+        }
+    }
+
+    @Override
+    public void close() {
+        greenMail.stop();
+    }
+}
@@ -0,0 +1,96 @@
+package com.lp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Prints the summary table and writes the same numbers as JSON for tracking across runs.
+class Report {
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    static void print(PrintStream out, Duration elapsed, LoadRunner runner, Map<String, StageMetrics.Snapshot> stages, List<SoakMonitor.Sample> samples) {
+        double seconds = elapsed.toNanos() / 1e9;
+        out.printf("%nRan %.1fs: %d lifecycles started, %d completed, %d arrivals dropped at the concurrency limit%n",
+                seconds, runner.getStarted(), runner.getCompleted(), runner.getDropped());
+        out.printf("%-10s %10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "stage", "count", "per sec", "errors", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        stages.forEach((name, stage) -> out.printf("%-10s %10d %10.1f %7.2f%% %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                name, stage.count(), stage.count() / seconds, stage.errorRate() * 100, stage.meanMillis(),
+                stage.percentileMillis(50), stage.percentileMillis(99), stage.percentileMillis(99.9), stage.maxMillis()));
+        if (samples.size() > 1) {
+            out.printf("%nGrowth over the run: heap after GC %+.1f MB/min, token rows %+.0f/min, active tokens %+.0f/min%n",
+                    slopePerMinute(samples, SoakMonitor.Sample::heapAfterGc) / (1024 * 1024),
+                    slopePerMinute(samples, SoakMonitor.Sample::tokens),
+                    slopePerMinute(samples, SoakMonitor.Sample::activeTokens));
+        }
+    }
+
+    static void printSample(PrintStream out, SoakMonitor.Sample sample) {
+        out.printf("[%6ds] heap %6d MB (after GC %6d MB)  tokens %8d (active %7d)  users %8d  outbox %6d%n",
+                sample.elapsedMillis() / 1000, sample.heapUsed() >> 20, sample.heapAfterGc() >> 20,
+                sample.tokens(), sample.activeTokens(), sample.users(), sample.outbox());
+    }
+
+    static void write(Path path, LoadTestOptions options, Duration elapsed, LoadRunner runner, Map<String, StageMetrics.Snapshot> stages, List<SoakMonitor.Sample> samples) throws IOException {
+        double seconds = elapsed.toNanos() / 1e9;
+        Map<String, Object> stageResults = new LinkedHashMap<>();
+        stages.forEach((name, stage) -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", stage.count());
+            result.put("throughputPerSecond", stage.count() / seconds);
+            result.put("errors", stage.errors());
+            result.put("errorRate", stage.errorRate());
+            result.put("meanMillis", stage.meanMillis());
+            for (double percentile : PERCENTILES) {
+                result.put("p" + String.valueOf(percentile).replace(".0", "").replace(".", "") + "Millis", stage.percentileMillis(percentile));
+            }
+            result.put("maxMillis", stage.maxMillis());
+            stageResults.put(name, result);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", Map.of(
+                "rate", options.rate(),
+                "concurrency", options.concurrency(),
+                "refreshes", options.refreshes(),
+                "durationSeconds", options.duration().toSeconds(),
+                "target", options.baseUrl() == null ? "in-process" : options.baseUrl()));
+        report.put("elapsedSeconds", seconds);
+        report.put("lifecyclesStarted", runner.getStarted());
+        report.put("lifecyclesCompleted", runner.getCompleted());
+        report.put("arrivalsDropped", runner.getDropped());
+        report.put("stages", stageResults);
+        report.put("samples", samples);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    // Least-squares slope, so one GC landing just before a sample does not dominate the result.
+    private static double slopePerMinute(List<SoakMonitor.Sample> samples, ToLongFunction<SoakMonitor.Sample> value) {
+        double n = samples.size();
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (SoakMonitor.Sample sample : samples) {
+            double x = sample.elapsedMillis() / 60_000.0;
+            double y = value.applyAsLong(sample);
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        return denominator == 0 ? 0 : (n * sumXY - sumX * sumY) / denominator;
+    }
+}
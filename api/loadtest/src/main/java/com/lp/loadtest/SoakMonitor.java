@@ -0,0 +1,77 @@
+package com.lp.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Samples heap and table sizes at a fixed interval. Heap after GC is the sum of each heap pool's usage after its
+ * last collection, which tracks retained memory rather than allocation churn. Table counts need the in-process
+ * database and are -1 when running against an external instance.
+ */
+class SoakMonitor implements AutoCloseable {
+
+    record Sample(long elapsedMillis, long heapUsed, long heapAfterGc, long tokens, long activeTokens, long users, long outbox) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final List<Sample> samples = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "soak-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long start = System.nanoTime();
+
+    SoakMonitor(JdbcTemplate jdbc, Duration interval, Consumer<Sample> onSample) {
+        this.jdbc = jdbc;
+        scheduler.scheduleAtFixedRate(() -> onSample.accept(sample()), 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    List<Sample> getSamples() {
+        return List.copyOf(samples);
+    }
+
+    Sample sample() {
+        long heapAfterGc = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                heapAfterGc += afterGc.getUsed();
+            }
+        }
+        Sample sample = new Sample(
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                heapAfterGc,
+                count("select count(*) from token"),
+                count("select count(*) from token where revoked = false"),
+                count("select count(*) from users"),
+                count("select count(*) from email_outbox"));
+        samples.add(sample);
+        return sample;
+    }
+
+    private long count(String sql) {
+        if (jdbc == null) {
+            return -1;
+        }
+        Long count = jdbc.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
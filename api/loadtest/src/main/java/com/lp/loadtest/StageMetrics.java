@@ -0,0 +1,73 @@
+package com.lp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency and error counts per stage. Recorders are lock-free for writers, so recording does not serialize the load.
+class StageMetrics {
+
+    static final String LIFECYCLE = "lifecycle";
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    private static final class Stage {
+        final Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, 3);
+        final Histogram total = new Histogram(MAX_TRACKABLE_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    StageMetrics(String... names) {
+        for (String name : names) {
+            stages.put(name, new Stage());
+        }
+    }
+
+    void record(String stage, long nanos) {
+        stages.get(stage).recorder.recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+    }
+
+    void error(String stage) {
+        stages.get(stage).errors.increment();
+    }
+
+    /** Folds everything recorded so far into the per-stage totals and returns them; call from one thread. */
+    synchronized Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        stages.forEach((name, stage) -> {
+            stage.total.add(stage.recorder.getIntervalHistogram());
+            snapshots.put(name, new Snapshot(stage.total.copy(), stage.errors.sum()));
+        });
+        return snapshots;
+    }
+
+    record Snapshot(Histogram histogram, long errors) {
+
+        long count() {
+            return histogram.getTotalCount();
+        }
+
+        double errorRate() {
+            long attempts = count() + errors;
+            return attempts == 0 ? 0 : (double) errors / attempts;
+        }
+
+        double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        double meanMillis() {
+            return histogram.getMean() / 1e6;
+        }
+
+        double maxMillis() {
+            return histogram.getMaxValue() / 1e6;
+        }
+    }
+}
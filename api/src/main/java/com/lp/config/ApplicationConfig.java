@@ -1,28 +1,51 @@
 package com.lp.config;
 
 import com.lp.repository.UserRepository;
+import com.lp.services.AuthMetrics;
+import com.lp.services.BoundedPasswordEncoder;
+import com.lp.services.CachedUserDetailsService;
+import com.lp.services.LoginAttemptService;
+import com.lp.services.ReadYourWrites;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository repository;
+    private final LoginAttemptService loginAttemptService;
+    private final AuthMetrics authMetrics;
+    private final ReadYourWrites readYourWrites;
+
+    @Value("${security.user-cache.maximum-size}")
+    private long userCacheMaximumSize;
+    @Value("${security.user-cache.ttl}")
+    private Duration userCacheTtl;
+    @Value("${security.password.target-hash-time}")
+    private Duration targetHashTime;
+    @Value("${security.password.min-strength}")
+    private int minStrength;
+    @Value("${security.password.max-strength}")
+    private int maxStrength;
+    @Value("${security.password.executor.threads:0}")
+    private int hashingThreads;
+    @Value("${security.password.executor.queue-capacity}")
+    private int hashingQueueCapacity;
+    @Value("${security.password.executor.max-wait}")
+    private Duration hashingMaxWait;
 
     @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Username not found"));
+    public CachedUserDetailsService userDetailsService() {
+        return new CachedUserDetailsService(repository, loginAttemptService, authMetrics, readYourWrites, userCacheMaximumSize, userCacheTtl);
     }
 
     @Bean
@@ -30,6 +53,7 @@ public class ApplicationConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService());
         return authProvider;
     }
 
@@ -39,7 +63,9 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = BoundedPasswordEncoder.calibrateStrength(targetHashTime, minStrength, maxStrength);
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(strength, threads, hashingQueueCapacity, hashingMaxWait, authMetrics);
     }
 }
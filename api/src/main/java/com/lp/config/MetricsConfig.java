@@ -0,0 +1,133 @@
+package com.lp.config;
+
+import com.lp.filters.RateLimitFilter;
+import com.lp.services.AccessTokenDenylist;
+import com.lp.services.BoundedPasswordEncoder;
+import com.lp.services.CachedUserDetailsService;
+import com.lp.services.EmailDispatcher;
+import com.lp.services.EmailOutboxService;
+import com.lp.services.InMemoryVerificationCodeStore;
+import com.lp.services.LoginAttemptService;
+import com.lp.services.SmtpTransportPool;
+import com.lp.services.TokenPurgeJob;
+import com.lp.services.UserImportService;
+import com.lp.services.VerifiedTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Publishes the counters and queue depths the services already keep, so scraping costs nothing on the request path.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(VerifiedTokenCache verifiedTokenCache, CachedUserDetailsService userDetailsService) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, verifiedTokenCache.getCache(), "verified_tokens");
+            CaffeineCacheMetrics.monitor(registry, userDetailsService.getCache(), "users");
+            // Lifetime ratio; use rate(cache_gets_total) for a windowed one.
+            Gauge.builder("auth.cache.hit.ratio", verifiedTokenCache, cache -> cache.getStats().hitRate())
+                    .tag("cache", "verified_tokens")
+                    .register(registry);
+            Gauge.builder("auth.cache.hit.ratio", userDetailsService, cache -> cache.getStats().hitRate())
+                    .tag("cache", "users")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(BoundedPasswordEncoder passwordEncoder) {
+        return registry -> {
+            Gauge.builder("auth.password.queue.depth", passwordEncoder, BoundedPasswordEncoder::getQueueDepth)
+                    .description("Password hashing tasks waiting for a pool thread")
+                    .register(registry);
+            Gauge.builder("auth.password.active", passwordEncoder, BoundedPasswordEncoder::getActiveCount)
+                    .register(registry);
+            Gauge.builder("auth.password.pool.size", passwordEncoder, BoundedPasswordEncoder::getPoolSize)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenMetrics(AccessTokenDenylist denylist, ObjectProvider<TokenPurgeJob> purgeJob) {
+        return registry -> {
+            Gauge.builder("auth.denylist.size", denylist, AccessTokenDenylist::size)
+                    .description("Revoked access tokens that have not expired yet")
+                    .register(registry);
+            purgeJob.ifAvailable(job -> {
+                FunctionCounter.builder("auth.token.purge.runs", job, TokenPurgeJob::getRuns).register(registry);
+                FunctionCounter.builder("auth.token.purge.rows", job, TokenPurgeJob::getRowsRemoved).register(registry);
+                Gauge.builder("auth.token.purge.last.rows", job, TokenPurgeJob::getLastRunRows).register(registry);
+                Gauge.builder("auth.token.purge.last.duration", job, TokenPurgeJob::getLastRunMillis)
+                        .baseUnit("milliseconds")
+                        .register(registry);
+            });
+        };
+    }
+
+    @Bean
+    public MeterBinder loginProtectionMetrics(LoginAttemptService loginAttempts, RateLimitFilter rateLimitFilter, RateLimitProperties rateLimits) {
+        return registry -> {
+            FunctionCounter.builder("auth.login.failures", loginAttempts, LoginAttemptService::getFailures).register(registry);
+            FunctionCounter.builder("auth.login.lockouts", loginAttempts, LoginAttemptService::getLockouts).register(registry);
+            FunctionCounter.builder("auth.login.rejected", loginAttempts, LoginAttemptService::getRejected)
+                    .description("Logins refused because the account or source was locked out")
+                    .register(registry);
+            Gauge.builder("auth.login.tracked.keys", loginAttempts, LoginAttemptService::getTrackedKeys).register(registry);
+            // Endpoint names come from configuration, so the tag set is fixed at startup.
+            rateLimits.getEndpoints().keySet().forEach(endpoint -> {
+                FunctionCounter.builder("auth.rate.limit.requests", rateLimitFilter, filter -> filter.getAllowedCounts().getOrDefault(endpoint, 0L))
+                        .tag("endpoint", endpoint)
+                        .tag("result", "allowed")
+                        .register(registry);
+                FunctionCounter.builder("auth.rate.limit.requests", rateLimitFilter, filter -> filter.getRejectedCounts().getOrDefault(endpoint, 0L))
+                        .tag("endpoint", endpoint)
+                        .tag("result", "rejected")
+                        .register(registry);
+            });
+        };
+    }
+
+    @Bean
+    public MeterBinder emailMetrics(EmailOutboxService outboxService, EmailDispatcher dispatcher, SmtpTransportPool transportPool) {
+        return registry -> {
+            // Cached counts, refreshed every email.outbox.count-refresh-interval.
+            Gauge.builder("email.outbox.pending", outboxService, EmailOutboxService::getQueueDepth).register(registry);
+            Gauge.builder("email.outbox.dead", outboxService, EmailOutboxService::getDeadLetterCount).register(registry);
+            FunctionCounter.builder("email.delivery", dispatcher, EmailDispatcher::getSentCount)
+                    .tag("result", "sent")
+                    .register(registry);
+            FunctionCounter.builder("email.delivery", dispatcher, EmailDispatcher::getFailedCount)
+                    .tag("result", "failed")
+                    .register(registry);
+            FunctionCounter.builder("email.delivery", dispatcher, EmailDispatcher::getDeadLetteredCount)
+                    .tag("result", "dead_lettered")
+                    .register(registry);
+            Gauge.builder("email.smtp.pool.idle", transportPool, SmtpTransportPool::getIdleCount).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder verificationMetrics(ObjectProvider<InMemoryVerificationCodeStore> store) {
+        return registry -> store.ifAvailable(codes ->
+                Gauge.builder("auth.verification.codes", codes, InMemoryVerificationCodeStore::size)
+                        .description("Outstanding verification codes held in memory")
+                        .register(registry));
+    }
+
+    @Bean
+    public MeterBinder userImportMetrics(UserImportService importService) {
+        return registry -> {
+            FunctionCounter.builder("users.import.rows", importService, UserImportService::getImportedRows)
+                    .tag("result", "imported")
+                    .register(registry);
+            FunctionCounter.builder("users.import.rows", importService, UserImportService::getFailedRows)
+                    .tag("result", "failed")
+                    .register(registry);
+        };
+    }
+}
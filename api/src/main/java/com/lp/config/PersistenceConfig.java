@@ -0,0 +1,27 @@
+package com.lp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class PersistenceConfig {
+
+    // Applied here rather than in the datasource URL, which comes from the environment and may not be PostgreSQL.
+    @Bean
+    public static BeanPostProcessor rewriteBatchedInserts(Environment environment) {
+        boolean enabled = environment.getProperty("persistence.rewrite-batched-inserts", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof HikariDataSource dataSource
+                        && dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith("jdbc:postgresql:")) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.lp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    // Upper bound on tracked IPs and accounts; idle keys are evicted first.
+    private long maximumKeys = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    // Only this much of a request body is buffered to find the account key.
+    private int maxBodyBytes = 16 * 1024;
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Endpoint {
+
+        private String path;
+        // Request parameter or JSON body field that identifies the account, e.g. email.
+        private String accountField;
+        private Limit perIp;
+        private Limit perAccount;
+    }
+
+    // A bucket of capacity requests that refills completely over period.
+    @Data
+    public static class Limit {
+
+        private long capacity;
+        private Duration period;
+
+        public long intervalNanos() {
+            return period.toNanos() / capacity;
+        }
+    }
+}
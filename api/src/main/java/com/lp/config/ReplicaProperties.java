@@ -0,0 +1,30 @@
+package com.lp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "persistence.replica")
+public class ReplicaProperties {
+
+    // Empty keeps every query on spring.datasource.
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // Replicas further behind than this stop taking reads, and this instance reads its own writes from the primary for this long.
+    private Duration maxLag = Duration.ofSeconds(2);
+    private long lagCheckInterval = 5000;
+    // Upper bound on users tracked as recently written.
+    private long trackedWrites = 100_000;
+
+    public boolean isEnabled() {
+        return !urls.isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package com.lp.config;
+
+import com.lp.services.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Replaces the auto-configured datasource only when replicas are listed; otherwise Boot's single pool is untouched.
+@Configuration
+@ConditionalOnExpression("!'${persistence.replica.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties primary,
+                                                             ReplicaProperties properties, ReadYourWrites readYourWrites) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(properties.getUrls().get(i).trim());
+            replica.setUsername(StringUtils.hasText(properties.getUsername()) ? properties.getUsername() : primary.determineUsername());
+            replica.setPassword(StringUtils.hasText(properties.getUsername()) ? properties.getPassword() : primary.determinePassword());
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites, properties.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRoutingDataSource routing) {
+        return registry -> {
+            FunctionCounter.builder("persistence.reads", routing, ReplicaRoutingDataSource::getPrimaryReads)
+                    .description("Read-only transactions, by the database that served them")
+                    .tag("target", "primary")
+                    .register(registry);
+            FunctionCounter.builder("persistence.reads", routing, ReplicaRoutingDataSource::getReplicaReads)
+                    .tag("target", "replica")
+                    .register(registry);
+            Gauge.builder("persistence.replicas.healthy", routing, ReplicaRoutingDataSource::getHealthyReplicas)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.lp.config;
+
+import com.lp.services.ReadYourWrites;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to the healthy replicas in turn and everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the read-only flag is only known once the
+ * transaction has begun, after the transaction manager has asked for its connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    // Zero while the replica has replayed everything it received, so an idle primary does not read as lag.
+    private static final String POSTGRES_LAG_QUERY = """
+select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+            else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end
+""";
+
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReadYourWrites readYourWrites, Duration maxLag) {
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue()))
+                .toList();
+        this.readYourWrites = readYourWrites;
+        this.maxLag = maxLag;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.pinRequest();
+            }
+            return PRIMARY;
+        }
+        if (!readYourWrites.isPinned()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.healthy) {
+                    replicaReads.increment();
+                    return replica.key;
+                }
+            }
+        }
+        // Pinned, or every replica is too far behind.
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${persistence.replica.lag-check-interval}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                Duration lag = lag(replica.dataSource);
+                healthy = lag.compareTo(maxLag) <= 0;
+                if (!healthy && replica.healthy) {
+                    log.warn("Replica {} is {} ms behind, routing its reads to the primary", replica.key, lag.toMillis());
+                }
+            } catch (SQLException e) {
+                healthy = false;
+                if (replica.healthy) {
+                    log.warn("Replica {} is unreachable, routing its reads to the primary", replica.key, e);
+                }
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Replica {} caught up, routing reads to it again", replica.key);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    // Only PostgreSQL exposes replay progress; anything else (e.g. the embedded test databases) counts as current.
+    private static Duration lag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.getMetaData().getURL().startsWith("jdbc:postgresql:")) {
+                return Duration.ZERO;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(POSTGRES_LAG_QUERY)) {
+                result.next();
+                return Duration.ofMillis(result.getLong(1));
+            }
+        }
+    }
+
+    // The replica pools are not beans of their own, so they are closed with the router.
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getHealthyReplicas() {
+        return replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private static final class Replica {
+
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.lp.config;
 
+import com.lp.enums.Role;
 import com.lp.filters.JwtAuthFilter;
+import com.lp.filters.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManagers;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,7 +20,10 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -26,17 +36,26 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final AuthenticationProvider authenticationProvider;
     private final LogoutHandler logoutHandler;
 
+    // Scrapers on these addresses (or CIDR ranges) read metrics without a token; anyone else needs an admin role.
+    @Value("${security.metrics.allowed-addresses:}")
+    private List<String> metricsAllowedAddresses;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                                .requestMatchers("/api/v1/auth/**")
+                                .requestMatchers("/api/v1/auth/**", "/api/v1/introspect", "/.well-known/**", "/actuator/health")
                                 .permitAll()
+                                .requestMatchers("/actuator/prometheus")
+                                .access(AuthorizationManagers.anyOf(metricsScraper(), AuthorityAuthorizationManager.hasAnyAuthority(Role.ADMIN.name(), Role.SUPERADMIN.name())))
+                                .requestMatchers("/api/v1/admin/**")
+                                .hasAnyAuthority(Role.ADMIN.name(), Role.SUPERADMIN.name())
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(sm -> sm
@@ -44,6 +63,7 @@ public class SecurityConfig {
                 )
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthFilter.class)
                 .logout(logout -> logout
                         .logoutUrl("/api/v1/auth/logout")
                         .addLogoutHandler(logoutHandler)
@@ -52,6 +72,16 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // The socket address only: forwarded headers are client-controlled.
+    private AuthorizationManager<RequestAuthorizationContext> metricsScraper() {
+        List<IpAddressMatcher> allowed = metricsAllowedAddresses.stream()
+                .filter(StringUtils::hasText)
+                .map(address -> new IpAddressMatcher(address.trim()))
+                .toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                allowed.stream().anyMatch(matcher -> matcher.matches(context.getRequest().getRemoteAddr())));
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration corsConfig = new CorsConfiguration();
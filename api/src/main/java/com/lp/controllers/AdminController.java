@@ -0,0 +1,130 @@
+package com.lp.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.dto.RevokeAccessTokensRequest;
+import com.lp.dto.RevokeSessionsRequest;
+import com.lp.dto.RevokeSessionsResponse;
+import com.lp.dto.SessionInvalidationResponse;
+import com.lp.dto.UserImportEvent;
+import com.lp.enums.VerificationMode;
+import com.lp.services.AccessTokenService;
+import com.lp.services.RefreshTokenService;
+import com.lp.services.SessionEpochService;
+import com.lp.services.UserImportService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final RefreshTokenService refreshTokenService;
+    private final AccessTokenService accessTokenService;
+    private final UserImportService userImportService;
+    private final SessionEpochService sessionEpochService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping("/sessions/revoke")
+    public ResponseEntity<RevokeSessionsResponse> revokeSessions(
+            @RequestBody RevokeSessionsRequest request
+    ) {
+        List<Integer> userIds = request.getUserIds() == null ? List.of() : request.getUserIds().stream().distinct().toList();
+        int revoked = refreshTokenService.revokeAllForUsers(userIds);
+        return ResponseEntity.ok(RevokeSessionsResponse.builder()
+                .users(userIds.size())
+                .revokedTokens(revoked)
+                .build());
+    }
+
+    // Ends every session of these users, access tokens included, with one update per thousand users.
+    @PostMapping("/sessions/invalidate")
+    public ResponseEntity<SessionInvalidationResponse> invalidateSessions(
+            @RequestBody RevokeSessionsRequest request
+    ) {
+        List<Integer> userIds = request.getUserIds() == null ? List.of() : request.getUserIds().stream().distinct().toList();
+        return ResponseEntity.ok(SessionInvalidationResponse.builder()
+                .users(sessionEpochService.invalidateUsers(userIds))
+                .build());
+    }
+
+    @PostMapping("/users/{id}/sessions/invalidate")
+    public ResponseEntity<?> invalidateUserSessions(
+            @PathVariable Integer id
+    ) {
+        try {
+            return ResponseEntity.ok(SessionInvalidationResponse.builder()
+                    .users(1)
+                    .epoch(sessionEpochService.invalidateUser(id))
+                    .build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Incident response: every token issued so far, for every user, stops working.
+    @PostMapping("/sessions/invalidate-all")
+    public ResponseEntity<SessionInvalidationResponse> invalidateAllSessions() {
+        return ResponseEntity.ok(SessionInvalidationResponse.builder()
+                .epoch(sessionEpochService.invalidateAll())
+                .build());
+    }
+
+    @PostMapping("/access-tokens/revoke")
+    public ResponseEntity<Long> revokeAccessTokens(
+            @RequestBody RevokeAccessTokensRequest request
+    ) {
+        List<String> tokens = request.getTokens() == null ? List.of() : request.getTokens();
+        long revoked = tokens.stream().filter(accessTokenService::revoke).count();
+        return ResponseEntity.ok(revoked);
+    }
+
+    // Streams both ways: rows are read as they arrive and errors and progress are flushed as NDJSON per batch.
+    @PostMapping(value = "/users/import", consumes = {"application/x-ndjson", "text/csv"})
+    public void importUsers(
+            @RequestParam(defaultValue = "SEND") VerificationMode verification,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        var format = request.getContentType().startsWith("text/csv") ? UserImportService.Format.CSV : UserImportService.Format.NDJSON;
+        var charset = request.getCharacterEncoding() != null ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        var reader = new BufferedReader(new InputStreamReader(request.getInputStream(), charset));
+        response.setContentType("application/x-ndjson");
+        ServletOutputStream out = response.getOutputStream();
+        try {
+            userImportService.importUsers(reader, format, verification, event -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(event));
+                    out.write('\n');
+                    if (!UserImportEvent.ERROR.equals(event.getType())) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            // Only the CSV header is checked up front; by then nothing has been written.
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType("text/plain");
+            out.write(e.getMessage().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
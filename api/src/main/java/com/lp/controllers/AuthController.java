@@ -4,10 +4,14 @@ import com.lp.dto.AuthenticationRequest;
 import com.lp.dto.AuthenticationResponse;
 import com.lp.dto.RegisterRequest;
 import com.lp.dto.VerifyRequest;
+import com.lp.exceptions.LoginLockedException;
+import com.lp.exceptions.PasswordHashingRejectedException;
 import com.lp.services.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +32,8 @@ public class AuthController {
         try {
             boolean result = authService.register(request);
             return ResponseEntity.ok("Verification email has been sent!");
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body("Failed to send verification email.");
         }
@@ -36,9 +42,10 @@ public class AuthController {
     @PostMapping("/login")
     public void authenticate(
             @RequestBody AuthenticationRequest request,
+            HttpServletRequest httpRequest,
             HttpServletResponse response
     ) throws IOException {
-        authService.authenticate(request, response);
+        authService.authenticate(request, httpRequest, response);
     }
 
     @PostMapping("/verify")
@@ -76,4 +83,18 @@ public class AuthController {
     ) {
         return ResponseEntity.ok(authService.isUserEnabled(id));
     }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> passwordHashingRejected(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(LoginLockedException.class)
+    public ResponseEntity<String> loginLocked(LoginLockedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
 }
@@ -0,0 +1,50 @@
+package com.lp.controllers;
+
+import com.lp.dto.IntrospectionRequest;
+import com.lp.dto.IntrospectionResponse;
+import com.lp.services.TokenIntrospectionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/introspect")
+@RequiredArgsConstructor
+public class IntrospectionController {
+
+    private final TokenIntrospectionService introspectionService;
+
+    @Value("${security.introspection.api-key:}")
+    private String apiKey;
+
+    @PostMapping
+    public ResponseEntity<?> introspect(
+            @RequestHeader(value = "X-Introspection-Key", required = false) String key,
+            @RequestBody IntrospectionRequest request
+    ) {
+        if (!isAuthorized(key)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        List<String> tokens = request.getTokens() == null ? List.of() : request.getTokens();
+        try {
+            return ResponseEntity.ok(IntrospectionResponse.builder()
+                    .results(introspectionService.introspect(tokens))
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Gateways authenticate with a shared key; the endpoint stays closed until one is configured.
+    private boolean isAuthorized(String key) {
+        return !apiKey.isBlank() && key != null && MessageDigest.isEqual(
+                apiKey.getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8));
+    }
+}
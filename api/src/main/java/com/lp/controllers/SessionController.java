@@ -0,0 +1,30 @@
+package com.lp.controllers;
+
+import com.lp.dto.SessionInvalidationResponse;
+import com.lp.dto.UserPrincipal;
+import com.lp.services.SessionEpochService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/sessions")
+@RequiredArgsConstructor
+public class SessionController {
+
+    private final SessionEpochService sessionEpochService;
+
+    // "Log out everywhere": the token used for this call stops working too.
+    @PostMapping("/invalidate")
+    public ResponseEntity<SessionInvalidationResponse> invalidateMySessions(
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        return ResponseEntity.ok(SessionInvalidationResponse.builder()
+                .users(1)
+                .epoch(sessionEpochService.invalidateUser(principal.getId()))
+                .build());
+    }
+}
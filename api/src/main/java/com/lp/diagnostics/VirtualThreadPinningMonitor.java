@@ -0,0 +1,96 @@
+package com.lp.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Streams JFR jdk.VirtualThreadPinned events and attributes each one to the first frame in code we care about,
+// e.g. a synchronized block inside the JDBC driver, Hibernate or Jakarta Mail.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "diagnostics.virtual-threads.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final List<String> ATTRIBUTED_PACKAGES = List.of(
+            "com.lp.",
+            "org.hibernate.",
+            "org.postgresql.",
+            "com.zaxxer.hikari.",
+            "jakarta.mail.",
+            "org.eclipse.angus.mail.",
+            "org.springframework.security.crypto."
+    );
+
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> pinnedNanosBySite = new ConcurrentHashMap<>();
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${diagnostics.virtual-threads.pinning.threshold}")
+    private Duration threshold;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::record);
+        stream.startAsync();
+        log.info("Recording virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+            log.info("Virtual thread pinning summary: {}", getPinnedCounts());
+        }
+    }
+
+    public Map<String, Long> getPinnedCounts() {
+        return pinnedBySite.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum(), Long::sum, TreeMap::new));
+    }
+
+    public Map<String, Long> getPinnedMillis() {
+        return pinnedNanosBySite.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum() / 1_000_000, Long::sum, TreeMap::new));
+    }
+
+    private void record(RecordedEvent event) {
+        String site = attribute(event);
+        pinnedBySite.computeIfAbsent(site, key -> new LongAdder()).increment();
+        pinnedNanosBySite.computeIfAbsent(site, key -> new LongAdder()).add(event.getDuration().toNanos());
+        if (reportedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}\n{}", event.getDuration().toMillis(), site, event.getStackTrace());
+        }
+    }
+
+    private String attribute(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (ATTRIBUTED_PACKAGES.stream().anyMatch(type::startsWith)) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "other";
+    }
+}
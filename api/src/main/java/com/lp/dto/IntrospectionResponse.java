@@ -0,0 +1,18 @@
+package com.lp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntrospectionResponse {
+
+    // Same order as the tokens in the request.
+    private List<TokenIntrospection> results;
+}
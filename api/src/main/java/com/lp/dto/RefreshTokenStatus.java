@@ -0,0 +1,21 @@
+package com.lp.dto;
+
+import com.lp.enums.Role;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class RefreshTokenStatus {
+
+    String tokenHash;
+    boolean revoked;
+    Instant expiresAt;
+    int sessionEpoch;
+    int globalEpoch;
+    Integer userId;
+    String email;
+    Role role;
+    boolean enabled;
+    int userSessionEpoch;
+}
@@ -0,0 +1,23 @@
+package com.lp.dto;
+
+import com.lp.enums.Role;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class RefreshTokenView {
+
+    Integer tokenId;
+    boolean revoked;
+    Instant revokedAt;
+    Instant expiresAt;
+    String family;
+    int sessionEpoch;
+    int globalEpoch;
+    Integer userId;
+    String email;
+    Role role;
+    boolean enabled;
+    int userSessionEpoch;
+}
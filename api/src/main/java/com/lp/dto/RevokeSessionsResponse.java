@@ -0,0 +1,16 @@
+package com.lp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokeSessionsResponse {
+
+    private int users;
+    private int revokedTokens;
+}
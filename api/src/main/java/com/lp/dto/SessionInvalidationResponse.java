@@ -0,0 +1,20 @@
+package com.lp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SessionInvalidationResponse {
+
+    // Users whose epoch was bumped; absent for a global bump.
+    private Integer users;
+    // The epoch now required; absent for a bulk bump, where each user has their own.
+    private Integer epoch;
+}
@@ -0,0 +1,34 @@
+package com.lp.dto;
+
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder
+public class TokenClaims {
+
+    String subject;
+    Instant issuedAt;
+    Instant expiration;
+    Integer userId;
+    Role role;
+    String jti;
+    // Null for tokens issued before the type was stamped.
+    TokenType tokenType;
+    // 0 for tokens issued before epochs were stamped, which stay valid until the first bump.
+    int sessionEpoch;
+    int globalEpoch;
+
+    // Older refresh tokens carry no type, but never a role either.
+    public boolean isRefreshToken() {
+        return tokenType == TokenType.REFRESH || (tokenType == null && role == null);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+}
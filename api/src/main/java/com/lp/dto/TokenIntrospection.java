@@ -0,0 +1,32 @@
+package com.lp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.lp.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Field names follow RFC 7662; an inactive token carries nothing but active=false.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+
+    private boolean active;
+    @JsonProperty("token_type")
+    private String tokenType;
+    private String sub;
+    private Integer uid;
+    private Role role;
+    private String jti;
+    private Long iat;
+    private Long exp;
+
+    public static TokenIntrospection inactive() {
+        return TokenIntrospection.builder().active(false).build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.lp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of the NDJSON import response: a rejected row, progress after a batch, or the final summary.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportEvent {
+
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String SUMMARY = "summary";
+
+    private String type;
+    private Integer line;
+    private String email;
+    private String error;
+    private Long rows;
+    private Long imported;
+    private Long failed;
+    private Long elapsedMillis;
+}
@@ -0,0 +1,18 @@
+package com.lp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One account in an import; either a plain password to hash or an existing BCrypt hash to keep.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportRow {
+
+    private String email;
+    private String password;
+    private String passwordHash;
+}
@@ -0,0 +1,61 @@
+package com.lp.dto;
+
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+import lombok.With;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class UserPrincipal implements UserDetails {
+
+    Integer id;
+    String email;
+    @ToString.Exclude
+    String password;
+    Role role;
+    boolean enabled;
+    // Set per lookup from LoginAttemptService; cached principals are always unlocked.
+    @With
+    @Builder.Default
+    boolean accountNonLocked = true;
+
+    public static UserPrincipal from(User user) {
+        return UserPrincipal.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .enabled(user.isEnabled())
+                .build();
+    }
+
+    public static UserPrincipal fromClaims(TokenClaims claims) {
+        return UserPrincipal.builder()
+                .id(claims.getUserId())
+                .email(claims.getSubject())
+                .role(claims.getRole())
+                .enabled(true)
+                .build();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
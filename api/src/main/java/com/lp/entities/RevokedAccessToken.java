@@ -0,0 +1,53 @@
+package com.lp.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// A revoked access-token jti, kept until the token expires so every node can load it into its denylist.
+// New until persisted or loaded, so saving a revocation inserts the jti directly instead of looking it up first.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "revoked_access_tokens",
+        indexes = {
+                @Index(name = "idx_revoked_access_tokens_revoked_at", columnList = "revokedAt"),
+                @Index(name = "idx_revoked_access_tokens_expires_at", columnList = "expiresAt")
+        }
+)
+public class RevokedAccessToken implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String jti;
+    @Column(nullable = false)
+    private Instant revokedAt;
+    @Column(nullable = false)
+    private Instant expiresAt;
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return jti;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
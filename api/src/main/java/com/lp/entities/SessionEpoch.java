@@ -0,0 +1,25 @@
+package com.lp.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A single row holding the epoch every token must match, bumped to end all sessions during an incident.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "session_epoch")
+public class SessionEpoch {
+
+    public static final String GLOBAL = "global";
+
+    @Id
+    @Column(length = 16)
+    private String scope;
+    @Column(nullable = false)
+    private int epoch;
+}
@@ -0,0 +1,45 @@
+package com.lp.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "signing_keys")
+public class SigningKey {
+
+    @Id
+    @Column(length = 36)
+    private String kid;
+    // JWS algorithm, e.g. RS256
+    @Column(nullable = false, length = 16)
+    private String algorithm;
+    // JCA key algorithm used to decode the key material, e.g. RSA, EC, EdDSA
+    @Column(nullable = false, length = 16)
+    private String keyAlgorithm;
+    // PKCS#8, AES-GCM encrypted under security.jwt.signing.key-encryption-key
+    @ToString.Exclude
+    @Column(nullable = false, length = 8192)
+    private byte[] privateKey;
+    @Column(nullable = false, length = 8192)
+    private byte[] publicKey;
+    @Column(nullable = false)
+    private Instant createdAt;
+    // Published in the JWKS from creation, used for signing from activatesAt until retiresAt,
+    // and still accepted for verification until expiresAt.
+    @Column(nullable = false)
+    private Instant activatesAt;
+    @Column(nullable = false)
+    private Instant retiresAt;
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -4,24 +4,71 @@ import com.lp.enums.TokenType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
-@Data
+import java.time.Instant;
+
+@Getter
+@Setter
+@ToString
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_token_hash", columnNames = "tokenHash"),
+        indexes = {
+                @Index(name = "idx_token_family", columnList = "family"),
+                // Every login revokes the user's earlier tokens by user_id; PostgreSQL does not index foreign keys itself.
+                @Index(name = "idx_token_user", columnList = "user_id")
+        }
+)
 public class Token {
 
+    // Ids come from a pooled sequence (one call per 50 rows) so inserts wait for flush and go out as a JDBC batch.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_id")
+    @SequenceGenerator(name = "token_id", sequenceName = "token_seq", allocationSize = 50)
     private Integer id;
-    private String token;
+    // Hex SHA-256 of the issued token; the raw token itself is never stored.
+    @Column(nullable = false, length = 64, columnDefinition = "char(64)")
+    private String tokenHash;
     @Enumerated(EnumType.STRING)
     private TokenType tokenType;
     private boolean revoked;
-    @ManyToOne
+    private Instant expiresAt;
+    private Instant revokedAt;
+    // Every refresh token rotated from the same login shares a family, so a replayed one can revoke them all.
+    @Column(length = 36)
+    private String family;
+    // The owner's and the global session epoch when the token was issued; see SessionEpochService.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int sessionEpoch;
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int globalEpoch;
+    // Hot paths read tokens through projections; the owner is only loaded when explicitly navigated.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
     private User user;
+
+    // Identity is the primary key, so equality never touches the lazy owner or changes once persisted.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Token other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Token.class.hashCode();
+    }
 }
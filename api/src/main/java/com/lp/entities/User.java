@@ -1,26 +1,32 @@
 package com.lp.entities;
 
 import com.lp.enums.Role;
+import com.lp.services.ReadYourWrites;
+import com.lp.services.UserCacheEvictionListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners({UserCacheEvictionListener.class, ReadYourWrites.class})
 @Table(name = "users")
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id")
+    @SequenceGenerator(name = "users_id", sequenceName = "users_seq", allocationSize = 50)
     private Integer id;
     private String displayName;
     private String firstName;
@@ -28,15 +34,19 @@ public class User implements UserDetails {
     @Column(nullable = false, unique = true)
     private String email;
     @Column(nullable = false)
+    @ToString.Exclude
     private String password;
-    private String verificationCode;
-    private LocalDateTime verificationExpiration;
     @Column(nullable = false)
     private boolean enabled;
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Role role;
+    // Bumped to end every session at once; tokens issued under an older epoch are rejected.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int sessionEpoch;
     @OneToMany(mappedBy = "user")
+    @ToString.Exclude
     private List<Token> tokens;
 
     @Override
@@ -73,4 +83,17 @@ public class User implements UserDetails {
     public boolean isEnabled() {
         return enabled;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof User other && id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return User.class.hashCode();
+    }
 }
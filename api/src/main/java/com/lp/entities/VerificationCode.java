@@ -0,0 +1,39 @@
+package com.lp.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Append-only: resending inserts a new row, and only the newest row per user counts.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "verification_codes",
+        indexes = {
+                @Index(name = "idx_verification_codes_user", columnList = "userId, id"),
+                @Index(name = "idx_verification_codes_expires_at", columnList = "expiresAt")
+        }
+)
+public class VerificationCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private Integer userId;
+    @Column(nullable = false, length = 32)
+    private byte[] codeHash;
+    private int attempts;
+    @Column(nullable = false)
+    private Instant createdAt;
+    @Column(nullable = false)
+    private Instant expiresAt;
+    private Instant consumedAt;
+}
@@ -0,0 +1,6 @@
+package com.lp.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    DEAD
+}
@@ -0,0 +1,11 @@
+package com.lp.enums;
+
+// How imported accounts are verified.
+public enum VerificationMode {
+    // Disabled until verified; a code is issued and the email queued in the same transaction as the account.
+    SEND,
+    // Disabled, nothing sent; users ask for a code through resendVerification when they first sign in.
+    DEFER,
+    // Enabled straight away, for accounts already verified by the system they come from.
+    SKIP
+}
@@ -0,0 +1,9 @@
+package com.lp.enums;
+
+public enum VerificationResult {
+    VALID,
+    INVALID,
+    EXPIRED,
+    TOO_MANY_ATTEMPTS,
+    NOT_FOUND
+}
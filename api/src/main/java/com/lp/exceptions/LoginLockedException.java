@@ -0,0 +1,22 @@
+package com.lp.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class LoginLockedException extends LockedException {
+
+    private final Duration retryAfter;
+
+    public LoginLockedException(Duration retryAfter) {
+        super("Too many failed login attempts, try again later.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
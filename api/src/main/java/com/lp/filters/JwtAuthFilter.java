@@ -1,13 +1,21 @@
 package com.lp.filters;
 
+import com.lp.dto.TokenClaims;
+import com.lp.dto.UserPrincipal;
+import com.lp.services.AccessTokenDenylist;
+import com.lp.services.AuthMetrics;
 import com.lp.services.JwtService;
-import com.lp.repository.TokenRepository;
+import com.lp.services.SessionEpochService;
+import com.lp.services.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,9 +23,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -25,7 +35,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final AuthMetrics metrics;
+    private final SessionEpochService sessionEpochs;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Value("${security.jwt.stateless.enabled:false}")
+    private boolean stateless;
+    @Value("${security.jwt.stateless.user-lookup-paths:}")
+    private List<String> userLookupPaths;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
@@ -38,12 +57,36 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
+        long start = System.nanoTime();
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        final TokenClaims claims;
+        try {
+            claims = verifiedTokenCache.get(jwt, jwtService::validateToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            metrics.recordFilter(AuthMetrics.FilterResult.INVALID, System.nanoTime() - start);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // A refresh token only belongs at the refresh endpoint; presented as a bearer token it is refused outright.
+        if (claims.isRefreshToken()) {
+            metrics.recordFilter(AuthMetrics.FilterResult.INVALID, System.nanoTime() - start);
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\", error_description=\"Refresh tokens cannot be used as access tokens\"");
+            return;
+        }
+        if (accessTokenDenylist.isRevoked(claims.getJti()) || !sessionEpochs.isCurrent(claims)) {
+            metrics.recordFilter(AuthMetrics.FilterResult.REVOKED, System.nanoTime() - start);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthMetrics.FilterResult result = AuthMetrics.FilterResult.REJECTED;
+        userEmail = claims.getSubject();
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-//            var isTokenValid = tokenRepository.findByToken(jwt).map(t -> !t.isRevoked()).orElse(false);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            UserDetails userDetails = isStatelessRequest(request, claims)
+                    ? UserPrincipal.fromClaims(claims)
+                    : this.userDetailsService.loadUserByUsername(userEmail);
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -53,8 +96,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                result = AuthMetrics.FilterResult.AUTHENTICATED;
             }
         }
+        metrics.recordFilter(result, System.nanoTime() - start);
         filterChain.doFilter(request, response);
     }
+
+    private boolean isStatelessRequest(HttpServletRequest request, TokenClaims claims) {
+        if (!stateless || claims.getUserId() == null || claims.getRole() == null) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return userLookupPaths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
 }
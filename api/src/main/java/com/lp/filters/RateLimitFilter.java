@@ -0,0 +1,131 @@
+package com.lp.filters;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.config.RateLimitProperties;
+import com.lp.services.ClientAddressResolver;
+import com.lp.services.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Throttles the unauthenticated endpoints that cost a BCrypt hash or an email, per client IP and per account.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ClientAddressResolver clientAddressResolver;
+    private final Map<String, Rule> rulesByPath = new HashMap<>();
+
+    private record Rule(String name, RateLimitProperties.Endpoint endpoint, LongAdder allowed, LongAdder rejected) {
+    }
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper, ClientAddressResolver clientAddressResolver) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clientAddressResolver = clientAddressResolver;
+        properties.getEndpoints().forEach((name, endpoint) ->
+                rulesByPath.put(endpoint.getPath(), new Rule(name, endpoint, new LongAdder(), new LongAdder())));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.isEnabled() || !rulesByPath.containsKey(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = rulesByPath.get(path(request));
+        RateLimitProperties.Endpoint endpoint = rule.endpoint();
+        HttpServletRequest forwarded = request;
+
+        long wait = 0;
+        if (endpoint.getPerIp() != null) {
+            wait = rateLimiter.tryAcquire(rule.name() + "|ip|" + clientAddressResolver.resolve(request), endpoint.getPerIp());
+        }
+        if (wait == 0 && endpoint.getPerAccount() != null && endpoint.getAccountField() != null) {
+            String account = request.getParameter(endpoint.getAccountField());
+            if (account == null && isJson(request)) {
+                ReplayableBodyRequest replayable = new ReplayableBodyRequest(request, properties.getMaxBodyBytes());
+                forwarded = replayable;
+                account = bodyField(replayable.getBufferedBody(), endpoint.getAccountField());
+            }
+            if (account != null && !account.isBlank()) {
+                String key = rule.name() + "|account|" + account.trim().toLowerCase(Locale.ROOT);
+                wait = rateLimiter.tryAcquire(key, endpoint.getPerAccount());
+            }
+        }
+
+        if (wait > 0) {
+            rule.rejected().increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999))));
+            response.getWriter().write("Too many requests, try again later.");
+            return;
+        }
+        rule.allowed().increment();
+        filterChain.doFilter(forwarded, response);
+    }
+
+    public Map<String, Long> getAllowedCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        rulesByPath.values().forEach(rule -> counts.put(rule.name(), rule.allowed().sum()));
+        return counts;
+    }
+
+    public Map<String, Long> getRejectedCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        rulesByPath.values().forEach(rule -> counts.put(rule.name(), rule.rejected().sum()));
+        return counts;
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/json");
+    }
+
+    // Streams the top-level fields and stops at the account field, so the rest of the body is never parsed.
+    private String bodyField(byte[] body, String field) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean match = field.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (match) {
+                    return value != null && value.isScalarValue() ? parser.getValueAsString() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // Malformed bodies are left for the controller to reject; they are still limited per IP.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.lp.filters;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Buffers the first bytes of the body so a filter can inspect them, then replays them followed by the rest of the stream.
+class ReplayableBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] head;
+    // Set only when the body was larger than the limit and the rest is still unread.
+    private final ServletInputStream rest;
+    private int position;
+
+    ReplayableBodyRequest(HttpServletRequest request, int limit) throws IOException {
+        super(request);
+        ServletInputStream original = request.getInputStream();
+        this.head = original.readNBytes(limit + 1);
+        this.rest = head.length <= limit ? null : original;
+    }
+
+    // The buffered body, or null if it was larger than the limit.
+    byte[] getBufferedBody() {
+        return rest == null ? head : null;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return new ServletInputStream() {
+            @Override
+            public int read() throws IOException {
+                if (position < head.length) {
+                    return head[position++] & 0xff;
+                }
+                return rest == null ? -1 : rest.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (position < head.length) {
+                    int n = Math.min(len, head.length - position);
+                    System.arraycopy(head, position, b, off, n);
+                    position += n;
+                    return n;
+                }
+                return rest == null ? -1 : rest.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return position >= head.length && (rest == null || rest.isFinished());
+            }
+
+            @Override
+            public boolean isReady() {
+                return position < head.length || rest == null || rest.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                if (rest != null) {
+                    // Reads still serve the buffered head first, then the container drives the rest.
+                    rest.setReadListener(readListener);
+                    return;
+                }
+                // The whole body is already in memory.
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+}
@@ -0,0 +1,23 @@
+package com.lp.repository;
+
+import com.lp.entities.OutboxMessage;
+import com.lp.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Integer> {
+
+    // lock.timeout -2 is SKIP LOCKED, so concurrent dispatchers never claim the same rows.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxMessage> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxStatus status, Instant now, Limit limit);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,19 @@
+package com.lp.repository;
+
+import com.lp.entities.RevokedAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, String> {
+
+    @Query("select r from RevokedAccessToken r where r.revokedAt >= :since and r.expiresAt > :now")
+    List<RevokedAccessToken> findRevokedSince(Instant since, Instant now);
+
+    @Modifying
+    @Query("delete from RevokedAccessToken r where r.expiresAt < :before")
+    int deleteExpiredBefore(Instant before);
+}
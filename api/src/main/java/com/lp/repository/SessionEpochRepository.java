@@ -0,0 +1,18 @@
+package com.lp.repository;
+
+import com.lp.entities.SessionEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface SessionEpochRepository extends JpaRepository<SessionEpoch, String> {
+
+    @Query("select e.epoch from SessionEpoch e where e.scope = :scope")
+    Optional<Integer> findEpoch(String scope);
+
+    @Modifying
+    @Query("update SessionEpoch e set e.epoch = e.epoch + 1 where e.scope = :scope")
+    int increment(String scope);
+}
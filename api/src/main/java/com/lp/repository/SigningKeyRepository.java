@@ -0,0 +1,12 @@
+package com.lp.repository;
+
+import com.lp.entities.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    List<SigningKey> findByExpiresAtAfterOrderByActivatesAtDesc(Instant now);
+}
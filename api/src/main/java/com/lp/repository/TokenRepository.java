@@ -1,22 +1,78 @@
 package com.lp.repository;
 
+import com.lp.dto.RefreshTokenStatus;
+import com.lp.dto.RefreshTokenView;
 import com.lp.entities.Token;
+import com.lp.enums.TokenType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository extends JpaRepository<Token, Integer> {
+
+    @Modifying
+    @Query("""
+update Token t set t.revoked = true, t.revokedAt = :now where t.user.id = :userId and t.revoked = false and t.tokenType = :tokenType
+""")
+    int revokeAllByUserIdAndTokenType(Integer userId, TokenType tokenType, Instant now);
+
+    @Modifying
+    @Query("""
+update Token t set t.revoked = true, t.revokedAt = :now where t.user.id in :userIds and t.revoked = false
+""")
+    int revokeAllByUserIdIn(Collection<Integer> userIds, Instant now);
+
+    // Keyset page over the primary key, so each purge batch starts where the previous one stopped.
     @Query("""
-select t from Token t inner join User u on t.user.id = u.id where u.id = :userId and t.revoked = false and t.tokenType = com.lp.enums.TokenType.ACCESS
+select t.id from Token t
+where t.id > :afterId and (t.expiresAt < :expiredBefore or (t.revoked = true and t.revokedAt < :revokedBefore))
+order by t.id
 """)
-    List<Token> findValidAccessTokensByUserId(Integer userId);
+    List<Integer> findPurgeableIds(Integer afterId, Instant expiredBefore, Instant revokedBefore, Limit limit);
 
+    @Modifying
+    @Query("delete from Token t where t.id in :ids")
+    int deleteByIdIn(Collection<Integer> ids);
+
+    Optional<Token> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update Token t set t.revoked = true, t.revokedAt = :now where t.tokenHash = :tokenHash and t.revoked = false")
+    int revokeByTokenHash(String tokenHash, Instant now);
+
+    // Everything the refresh endpoint needs about the token and its owner, in one round trip.
     @Query("""
-select t from Token t inner join User u on t.user.id = u.id where u.id = :userId and t.revoked = false and t.tokenType = com.lp.enums.TokenType.REFRESH
+select new com.lp.dto.RefreshTokenView(t.id, t.revoked, t.revokedAt, t.expiresAt, t.family, t.sessionEpoch, t.globalEpoch,
+                                       u.id, u.email, u.role, u.enabled, u.sessionEpoch)
+from Token t join t.user u
+where t.tokenHash = :tokenHash and t.tokenType = com.lp.enums.TokenType.REFRESH
 """)
-    List<Token> findValidRefreshTokensByUserId(Integer userId);
+    Optional<RefreshTokenView> findRefreshTokenView(String tokenHash);
+
+    // Revocation state for a whole introspection batch in one round trip; hashes with no row are simply absent.
+    // Read-only, so it may be served by a replica at most persistence.replica.max-lag behind.
+    @Transactional(readOnly = true)
+    @Query("""
+select new com.lp.dto.RefreshTokenStatus(t.tokenHash, t.revoked, t.expiresAt, t.sessionEpoch, t.globalEpoch,
+                                         u.id, u.email, u.role, u.enabled, u.sessionEpoch)
+from Token t join t.user u
+where t.tokenHash in :tokenHashes and t.tokenType = com.lp.enums.TokenType.REFRESH
+""")
+    List<RefreshTokenStatus> findRefreshTokenStatuses(Collection<String> tokenHashes);
+
+    // Returns 0 if another request already retired the token, so exactly one caller wins the rotation.
+    @Modifying
+    @Query("update Token t set t.revoked = true, t.revokedAt = :now where t.id = :id and t.revoked = false")
+    int retire(Integer id, Instant now);
 
-    Optional<Token> findByToken(String token);
+    @Modifying
+    @Query("update Token t set t.revoked = true, t.revokedAt = :now where t.family = :family and t.revoked = false")
+    int revokeFamily(String family, Instant now);
 }
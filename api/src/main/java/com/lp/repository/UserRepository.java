@@ -1,11 +1,41 @@
 package com.lp.repository;
 
+import com.lp.dto.UserPrincipal;
 import com.lp.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
     Optional<User> findByEmail(String email);
+
+    // Read-only snapshot for authentication; nothing is added to the persistence context.
+    @Transactional(readOnly = true)
+    @Query("""
+select new com.lp.dto.UserPrincipal(u.id, u.email, u.password, u.role, u.enabled, true)
+from User u
+where u.email = :email
+""")
+    Optional<UserPrincipal> findPrincipalByEmail(String email);
+
+    @Transactional(readOnly = true)
+    @Query("select u.enabled from User u where u.id = :id")
+    Optional<Boolean> findEnabledById(Integer id);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @Transactional(readOnly = true)
+    @Query("select u.sessionEpoch from User u where u.id = :id")
+    Optional<Integer> findSessionEpochById(Integer id);
+
+    @Modifying
+    @Query("update User u set u.sessionEpoch = u.sessionEpoch + 1 where u.id in :ids")
+    int incrementSessionEpochs(Collection<Integer> ids);
 }
@@ -0,0 +1,27 @@
+package com.lp.repository;
+
+import com.lp.entities.VerificationCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface VerificationCodeRepository extends JpaRepository<VerificationCode, Long> {
+
+    Optional<VerificationCode> findFirstByUserIdOrderByIdDesc(Integer userId);
+
+    // Returns 0 once the attempts are used up, so concurrent guesses cannot exceed the limit.
+    @Modifying
+    @Query("update VerificationCode v set v.attempts = v.attempts + 1 where v.id = :id and v.attempts < :maxAttempts and v.consumedAt is null")
+    int recordAttempt(Long id, int maxAttempts);
+
+    @Modifying
+    @Query("update VerificationCode v set v.consumedAt = :now where v.id = :id and v.consumedAt is null")
+    int consume(Long id, Instant now);
+
+    @Modifying
+    @Query("delete from VerificationCode v where v.expiresAt < :before")
+    int deleteExpiredBefore(Instant before);
+}
@@ -0,0 +1,117 @@
+package com.lp.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Revoked access-token jtis. A Bloom filter answers the common "not revoked" case from a few bit reads on the
+// jti's cached String hash; only a filter hit consults the exact map. Entries are dropped once the token has expired.
+// Each node holds its own copy: AccessTokenService persists revocations and loads the other nodes' on a schedule, so
+// another node keeps accepting a revoked token for up to security.jwt.denylist.refresh-interval.
+@Service
+public class AccessTokenDenylist {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Revocations share the read lock; only the periodic rebuild takes the write lock.
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final int bitCount;
+    private final int hashCount;
+    private volatile AtomicLongArray bits;
+
+    public AccessTokenDenylist(
+            @Value("${security.jwt.denylist.bloom-bits}") int bitCount,
+            @Value("${security.jwt.denylist.hashes}") int hashCount
+    ) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.bits = new AtomicLongArray(words(bitCount));
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.isBefore(Instant.now())) {
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            revoked.merge(jti, expiresAt.toEpochMilli(), Math::max);
+            add(bits, jti);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !mightContain(bits, jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // The filter cannot forget individual entries, so it is rebuilt from the surviving ones.
+    @Scheduled(fixedDelayString = "${security.jwt.denylist.sweep-interval}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        rebuildLock.writeLock().lock();
+        try {
+            if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+                return;
+            }
+            AtomicLongArray rebuilt = new AtomicLongArray(words(bitCount));
+            revoked.keySet().forEach(jti -> add(rebuilt, jti));
+            bits = rebuilt;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void add(AtomicLongArray target, String jti) {
+        int h1 = jti.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = target.get(word);
+            } while ((current & mask) == 0 && !target.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray target, String jti) {
+        int h1 = jti.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((target.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+
+    private static int words(int bitCount) {
+        return (bitCount + 63) >>> 6;
+    }
+}
@@ -0,0 +1,70 @@
+package com.lp.services;
+
+import com.lp.dto.TokenClaims;
+import com.lp.entities.RevokedAccessToken;
+import com.lp.repository.RevokedAccessTokenRepository;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Revocations are persisted and pulled into every node's denylist within security.jwt.denylist.refresh-interval.
+@Service
+@RequiredArgsConstructor
+public class AccessTokenService {
+
+    // Each refresh rereads this much before the last one, for transactions that committed late, replica lag and clock skew.
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private volatile Instant refreshedAt = Instant.EPOCH;
+
+    public boolean revoke(String jwt) {
+        final TokenClaims claims;
+        try {
+            claims = verifiedTokenCache.get(jwt, jwtService::validateToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Forged or already expired: nothing left to revoke.
+            return false;
+        }
+        verifiedTokenCache.evict(jwt);
+        if (claims.getJti() == null) {
+            return false;
+        }
+        try {
+            revokedAccessTokenRepository.save(RevokedAccessToken.builder()
+                    .jti(claims.getJti())
+                    .revokedAt(Instant.now())
+                    .expiresAt(claims.getExpiration())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Revoked before, e.g. a second logout with the same token.
+        }
+        // This node refuses the token at once; the others on their next refresh.
+        accessTokenDenylist.revoke(claims.getJti(), claims.getExpiration());
+        return true;
+    }
+
+    // The first run after startup loads every revocation that has not expired yet.
+    @Scheduled(fixedDelayString = "${security.jwt.denylist.refresh-interval}")
+    public void refreshDenylist() {
+        Instant now = Instant.now();
+        revokedAccessTokenRepository.findRevokedSince(refreshedAt.minus(REFRESH_OVERLAP), now)
+                .forEach(revoked -> accessTokenDenylist.revoke(revoked.getJti(), revoked.getExpiresAt()));
+        refreshedAt = now;
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${security.jwt.denylist.sweep-interval}")
+    public void purgeExpired() {
+        revokedAccessTokenRepository.deleteExpiredBefore(Instant.now());
+    }
+}
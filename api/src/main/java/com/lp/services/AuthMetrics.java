@@ -0,0 +1,125 @@
+package com.lp.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the individual stages of the auth pipeline, published as {@code auth.stage} tagged with the stage and
+ * whether it completed or threw. Both tags come from fixed sets so the series count stays constant.
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String STAGE_TIMER = "auth.stage";
+    public static final String FILTER_TIMER = "auth.filter";
+    public static final String EMAIL_DELIVERY_TIMER = "email.delivery.latency";
+
+    public enum Stage {
+        // Caller-side time, including any wait for the hashing pool.
+        PASSWORD_HASH,
+        PASSWORD_VERIFY,
+        // Time a hashing task spent queued before a pool thread picked it up.
+        PASSWORD_QUEUE,
+        USER_LOOKUP,
+        TOKEN_SIGN,
+        TOKEN_PARSE,
+        TOKEN_LOOKUP,
+        TOKEN_PERSIST,
+        TOKEN_REVOKE,
+        TEMPLATE_RENDER,
+        EMAIL_ENQUEUE,
+        EMAIL_SEND
+    }
+
+    // What JwtAuthFilter did with a request that carried a bearer token.
+    public enum FilterResult {
+        AUTHENTICATED,
+        INVALID,
+        REVOKED,
+        REJECTED
+    }
+
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Task<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final Timer[] succeeded;
+    private final Timer[] failed;
+    private final Timer[] filterResults;
+    private final Timer emailDelivery;
+
+    public AuthMetrics(MeterRegistry registry) {
+        Stage[] stages = Stage.values();
+        succeeded = new Timer[stages.length];
+        failed = new Timer[stages.length];
+        for (Stage stage : stages) {
+            succeeded[stage.ordinal()] = stageTimer(registry, stage, "success");
+            failed[stage.ordinal()] = stageTimer(registry, stage, "error");
+        }
+        FilterResult[] results = FilterResult.values();
+        filterResults = new Timer[results.length];
+        for (FilterResult result : results) {
+            filterResults[result.ordinal()] = Timer.builder(FILTER_TIMER)
+                    .description("Time JwtAuthFilter spent on requests carrying a bearer token")
+                    .tag("result", tag(result))
+                    .register(registry);
+        }
+        emailDelivery = Timer.builder(EMAIL_DELIVERY_TIMER)
+                .description("Time from enqueue to handoff to the SMTP server, including retries")
+                .register(registry);
+    }
+
+    public <T, E extends Exception> T time(Stage stage, Work<T, E> work) throws E {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.run();
+            success = true;
+            return result;
+        } finally {
+            record(stage, System.nanoTime() - start, success);
+        }
+    }
+
+    public <E extends Exception> void run(Stage stage, Task<E> task) throws E {
+        time(stage, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public void record(Stage stage, long nanos, boolean success) {
+        (success ? succeeded : failed)[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFilter(FilterResult result, long nanos) {
+        filterResults[result.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEmailDelivery(Duration latency) {
+        emailDelivery.record(latency);
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, Stage stage, String outcome) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in one stage of the auth pipeline")
+                .tag("stage", tag(stage))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
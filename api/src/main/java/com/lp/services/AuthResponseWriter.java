@@ -0,0 +1,41 @@
+package com.lp.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.dto.AuthenticationResponse;
+import com.lp.enums.Role;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// Writes the refresh cookie and the access token body shared by login, verify and refresh.
+@Component
+@RequiredArgsConstructor
+public class AuthResponseWriter {
+
+    private final JwtService jwtService;
+    // Thread-safe once configured; building one per response was the dominant allocation on these paths.
+    private final ObjectMapper objectMapper;
+
+    public void write(HttpServletResponse response, String jwt, String refreshToken, String email, Role role) throws IOException {
+        ResponseCookie refreshCookie = ResponseCookie.from("refreshToken", refreshToken)
+                .httpOnly(true)
+//                .sameSite("None")
+//                .secure(false)
+                .path("/api/v1/auth")
+                .maxAge(jwtService.getRefreshTokenExpiration())
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, refreshCookie.toString());
+        var authResponse = AuthenticationResponse.builder()
+                .accessToken(jwt)
+                .userEmail(email)
+                .role(role)
+                .build();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), authResponse);
+    }
+}
@@ -0,0 +1,70 @@
+package com.lp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lp.dto.UserPrincipal;
+import com.lp.repository.UserRepository;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+
+// Holds immutable UserPrincipal snapshots rather than managed User entities, keyed by email.
+public class CachedUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserRepository repository;
+    private final LoginAttemptService loginAttemptService;
+    private final AuthMetrics metrics;
+    private final ReadYourWrites readYourWrites;
+    private final Cache<String, UserPrincipal> cache;
+
+    public CachedUserDetailsService(UserRepository repository, LoginAttemptService loginAttemptService, AuthMetrics metrics, ReadYourWrites readYourWrites, long maximumSize, Duration ttl) {
+        this.repository = repository;
+        this.loginAttemptService = loginAttemptService;
+        this.metrics = metrics;
+        this.readYourWrites = readYourWrites;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserPrincipal principal = cache.get(username, email -> metrics.time(AuthMetrics.Stage.USER_LOOKUP,
+                        () -> readYourWrites.readUser(email, () -> repository.findPrincipalByEmail(email)))
+                .orElseThrow(() -> new UsernameNotFoundException("Username not found")));
+        return loginAttemptService.isLocked(username) ? principal.withAccountNonLocked(false) : principal;
+    }
+
+    // Called by DaoAuthenticationProvider after a successful login whose hash is below the current BCrypt cost.
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return repository.findByEmail(user.getUsername())
+                .map(entity -> {
+                    entity.setPassword(newPassword);
+                    return UserPrincipal.from(repository.save(entity));
+                })
+                .orElseThrow(() -> new UsernameNotFoundException("Username not found"));
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public Cache<String, UserPrincipal> getCache() {
+        return cache;
+    }
+}
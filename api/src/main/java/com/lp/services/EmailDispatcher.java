@@ -0,0 +1,145 @@
+package com.lp.services;
+
+import com.lp.entities.OutboxMessage;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class EmailDispatcher {
+
+    private final EmailOutboxService outboxService;
+    private final EmailService emailService;
+    private final SmtpTransportPool transportPool;
+    private final AuthMetrics metrics;
+    private final int batchSize;
+    private final ExecutorService senders;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    public EmailDispatcher(
+            EmailOutboxService outboxService,
+            EmailService emailService,
+            SmtpTransportPool transportPool,
+            AuthMetrics metrics,
+            @Value("${email.outbox.batch-size}") int batchSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.transportPool = transportPool;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        // Concurrency is already capped by the transport pool, so with virtual threads there is nothing to size.
+        this.senders = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(transportPool.getPoolSize());
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval}")
+    public void dispatch() {
+        List<OutboxMessage> batch;
+        do {
+            batch = outboxService.claimBatch(batchSize);
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+        transportPool.evictIdle();
+    }
+
+    // Splits the batch across the pooled connections so each connection streams its share back to back.
+    private void deliver(List<OutboxMessage> batch) {
+        int connections = Math.min(transportPool.getPoolSize(), batch.size());
+        List<List<OutboxMessage>> shares = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            shares.add(new ArrayList<>());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            shares.get(i % connections).add(batch.get(i));
+        }
+        CompletableFuture.allOf(shares.stream()
+                .map(share -> CompletableFuture.runAsync(() -> deliverOverOneConnection(share), senders))
+                .toArray(CompletableFuture[]::new)
+        ).join();
+    }
+
+    private void deliverOverOneConnection(List<OutboxMessage> messages) {
+        SmtpTransportPool.PooledTransport transport;
+        try {
+            transport = transportPool.borrow();
+        } catch (MessagingException | RuntimeException e) {
+            log.warn("Could not connect to the SMTP server: {}", e.getMessage());
+            messages.forEach(message -> recordFailure(message, e));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        List<Integer> delivered = new ArrayList<>();
+        try {
+            for (OutboxMessage message : messages) {
+                try {
+                    metrics.run(AuthMetrics.Stage.EMAIL_SEND, () -> transport.send(emailService.createMessage(message)));
+                    delivered.add(message.getId());
+                    recordDelivery(message);
+                } catch (MessagingException | RuntimeException e) {
+                    recordFailure(message, e);
+                    if (!transport.isConnected()) {
+                        // The rest stay claimed and are retried once their lease expires.
+                        break;
+                    }
+                }
+            }
+        } finally {
+            transportPool.release(transport);
+            outboxService.markSent(delivered);
+        }
+    }
+
+    private void recordDelivery(OutboxMessage message) {
+        sent.increment();
+        metrics.recordEmailDelivery(Duration.between(message.getCreatedAt(), Instant.now()));
+    }
+
+    private void recordFailure(OutboxMessage message, Exception e) {
+        failed.increment();
+        if (outboxService.markFailed(message, e)) {
+            deadLettered.increment();
+            log.error("Email {} to {} moved to dead letters after {} attempts", message.getId(), message.getRecipient(), message.getAttempts());
+        }
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getDeadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+}
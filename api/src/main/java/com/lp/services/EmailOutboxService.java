@@ -0,0 +1,107 @@
+package com.lp.services;
+
+import com.lp.entities.OutboxMessage;
+import com.lp.enums.OutboxStatus;
+import com.lp.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final OutboxMessageRepository outboxRepository;
+
+    @Value("${email.outbox.max-attempts}")
+    private int maxAttempts;
+    @Value("${email.outbox.initial-backoff}")
+    private Duration initialBackoff;
+    @Value("${email.outbox.max-backoff}")
+    private Duration maxBackoff;
+    @Value("${email.outbox.claim-lease}")
+    private Duration claimLease;
+
+    private volatile long queueDepth;
+    private volatile long deadLetterCount;
+
+    @Transactional
+    public OutboxMessage enqueue(String recipient, String subject, String body) {
+        var now = Instant.now();
+        var message = OutboxMessage.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+        return outboxRepository.save(message);
+    }
+
+    // Claimed rows are pushed past the lease instead of being held locked while SMTP runs;
+    // if this node dies mid-send they become due again once the lease runs out.
+    @Transactional
+    public List<OutboxMessage> claimBatch(int batchSize) {
+        var now = Instant.now();
+        var batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, now, Limit.of(batchSize));
+        batch.forEach(message -> message.setNextAttemptAt(now.plus(claimLease)));
+        return batch;
+    }
+
+    @Transactional
+    public void markSent(Collection<Integer> ids) {
+        if (!ids.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Transactional
+    public boolean markFailed(OutboxMessage message, Exception error) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(abbreviate(String.valueOf(error.getMessage())));
+        boolean dead = attempts >= maxAttempts;
+        if (dead) {
+            message.setStatus(OutboxStatus.DEAD);
+        } else {
+            message.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        }
+        outboxRepository.save(message);
+        return dead;
+    }
+
+    // Counted on a schedule rather than per metrics scrape, so scrape traffic never turns into queries.
+    @Scheduled(fixedDelayString = "${email.outbox.count-refresh-interval}")
+    public void refreshCounts() {
+        queueDepth = outboxRepository.countByStatus(OutboxStatus.PENDING);
+        deadLetterCount = outboxRepository.countByStatus(OutboxStatus.DEAD);
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getDeadLetterCount() {
+        return deadLetterCount;
+    }
+
+    private Duration backoff(int attempts) {
+        var delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private String abbreviate(String error) {
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
@@ -1,5 +1,6 @@
 package com.lp.services;
 
+import com.lp.entities.OutboxMessage;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -12,15 +13,21 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     private final JavaMailSender javaMailSender;
+    private final EmailOutboxService outboxService;
 
-    public void sendVerificationEmail(String to, String subject, String text) throws MessagingException {
+    // Only records the message; EmailDispatcher delivers it off the request thread.
+    public void sendVerificationEmail(String to, String subject, String text) {
+        outboxService.enqueue(to, subject, text);
+    }
+
+    public MimeMessage createMessage(OutboxMessage outboxMessage) throws MessagingException {
         MimeMessage message = javaMailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(text, true);
+        helper.setTo(outboxMessage.getRecipient());
+        helper.setSubject(outboxMessage.getSubject());
+        helper.setText(outboxMessage.getBody(), true);
 
-        javaMailSender.send(message);
+        return message;
     }
 }
@@ -0,0 +1,82 @@
+package com.lp.services;
+
+import com.lp.enums.VerificationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Opt-in single-node store: codes issued on one instance cannot be verified on another, and pending codes are lost on
+// restart. Only the hash lives in this process, never in a database or backup.
+@Service
+@ConditionalOnProperty(name = "verification.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private final Map<Integer, PendingCode> codes = new ConcurrentHashMap<>();
+    private final TimingWheel<Map.Entry<Integer, PendingCode>> expiries;
+    private final long ttlMillis;
+    private final int maxAttempts;
+    private final int maximumEntries;
+
+    private record PendingCode(byte[] digest, long expiresAt, AtomicInteger attempts) {
+    }
+
+    public InMemoryVerificationCodeStore(
+            @Value("${verification.code.ttl}") Duration ttl,
+            @Value("${verification.code.max-attempts}") int maxAttempts,
+            @Value("${verification.memory.maximum-entries}") int maximumEntries
+    ) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.maximumEntries = maximumEntries;
+        this.expiries = new TimingWheel<>(1000, System.currentTimeMillis());
+    }
+
+    @Override
+    public String issue(Integer userId) {
+        if (codes.size() >= maximumEntries && !codes.containsKey(userId)) {
+            throw new RuntimeException("Too many pending verifications, please try again later");
+        }
+        String code = VerificationCodeStore.newCode();
+        PendingCode pending = new PendingCode(VerificationCodeStore.digest(code), System.currentTimeMillis() + ttlMillis, new AtomicInteger());
+        codes.put(userId, pending);
+        expiries.schedule(Map.entry(userId, pending), pending.expiresAt());
+        return code;
+    }
+
+    @Override
+    public VerificationResult verify(Integer userId, String code) {
+        PendingCode pending = codes.get(userId);
+        if (pending == null) {
+            return VerificationResult.NOT_FOUND;
+        }
+        if (pending.expiresAt() <= System.currentTimeMillis()) {
+            codes.remove(userId, pending);
+            return VerificationResult.EXPIRED;
+        }
+        if (pending.attempts().incrementAndGet() > maxAttempts) {
+            codes.remove(userId, pending);
+            return VerificationResult.TOO_MANY_ATTEMPTS;
+        }
+        if (!VerificationCodeStore.matches(pending.digest(), code)) {
+            return VerificationResult.INVALID;
+        }
+        // Only the caller that removes the code gets VALID, so a code cannot be used twice.
+        return codes.remove(userId, pending) ? VerificationResult.VALID : VerificationResult.NOT_FOUND;
+    }
+
+    // Reissued or consumed codes are already gone from the map; removing by value leaves their successor alone.
+    @Scheduled(fixedDelay = 1000)
+    public void expire() {
+        expiries.advance(System.currentTimeMillis(), entry -> codes.remove(entry.getKey(), entry.getValue()));
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,103 @@
+package com.lp.services;
+
+import com.lp.entities.VerificationCode;
+import com.lp.enums.VerificationResult;
+import com.lp.repository.VerificationCodeRepository;
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Default store, shared by every node and surviving restarts; keeps verification churn in its own table instead of
+ * the users row. A six-digit code has too few values for a plain hash to hide it, so rows hold an HMAC keyed with
+ * {@code verification.code.hmac-key}, which is never stored in the database.
+ */
+@Service
+@ConditionalOnProperty(name = "verification.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationCodeStore implements VerificationCodeStore {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final VerificationCodeRepository repository;
+    private final Duration ttl;
+    private final int maxAttempts;
+    private final SecretKeySpec hmacKey;
+
+    public JpaVerificationCodeStore(
+            VerificationCodeRepository repository,
+            @Value("${verification.code.ttl}") Duration ttl,
+            @Value("${verification.code.max-attempts}") int maxAttempts,
+            @Value("${verification.code.hmac-key:}") String hmacKey
+    ) {
+        if (hmacKey.isBlank()) {
+            throw new IllegalStateException("verification.code.hmac-key is required for the jpa verification store");
+        }
+        this.repository = repository;
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+        this.hmacKey = new SecretKeySpec(Decoders.BASE64.decode(hmacKey), HMAC_ALGORITHM);
+    }
+
+    @Override
+    @Transactional
+    public String issue(Integer userId) {
+        String code = VerificationCodeStore.newCode();
+        Instant now = Instant.now();
+        repository.save(VerificationCode.builder()
+                .userId(userId)
+                .codeHash(mac(userId, code))
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return code;
+    }
+
+    @Override
+    @Transactional
+    public VerificationResult verify(Integer userId, String code) {
+        var found = repository.findFirstByUserIdOrderByIdDesc(userId);
+        if (found.isEmpty() || found.get().getConsumedAt() != null) {
+            return VerificationResult.NOT_FOUND;
+        }
+        VerificationCode pending = found.get();
+        Instant now = Instant.now();
+        if (pending.getExpiresAt().isBefore(now)) {
+            return VerificationResult.EXPIRED;
+        }
+        if (repository.recordAttempt(pending.getId(), maxAttempts) == 0) {
+            return VerificationResult.TOO_MANY_ATTEMPTS;
+        }
+        if (code == null || !MessageDigest.isEqual(pending.getCodeHash(), mac(userId, code.trim()))) {
+            return VerificationResult.INVALID;
+        }
+        return repository.consume(pending.getId(), now) == 1 ? VerificationResult.VALID : VerificationResult.NOT_FOUND;
+    }
+
+    // Bound to the user, so equal codes for different users never share a value.
+    private byte[] mac(Integer userId, String code) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            return mac.doFinal((userId + ":" + code).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${verification.jpa.purge-interval}")
+    public void purgeExpired() {
+        repository.deleteExpiredBefore(Instant.now());
+    }
+}
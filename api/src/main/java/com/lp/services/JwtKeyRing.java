@@ -0,0 +1,263 @@
+package com.lp.services;
+
+import com.lp.entities.SigningKey;
+import com.lp.repository.SigningKeyRepository;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the keys used to sign and verify JWTs.
+ * <p>
+ * With HS256 the ring is just the shared {@code security.jwt.secret-key}. With RS256, ES256 or EdDSA the key pairs
+ * live in the {@code signing_keys} table so every node signs with the same key, and the public halves are published
+ * at {@code /.well-known/jwks.json}. A new key is created {@code prepublish} before the active one retires, so
+ * verifiers that cache the JWKS already know it when the first token signed with it shows up, and a retired key
+ * keeps verifying for {@code overlap}, which must cover the longest token lifetime.
+ * <p>
+ * Private keys are stored encrypted with AES-GCM under {@code security.jwt.signing.key-encryption-key}, which comes
+ * from the environment (or a secret store behind it) rather than the database, so a copy of the table or a backup
+ * cannot be used to sign tokens. The kid is bound in as associated data, so ciphertexts cannot be swapped between rows.
+ */
+@Slf4j
+@Service
+public class JwtKeyRing {
+
+    private static final String HMAC_ALGORITHM = "HS256";
+    private static final String KEY_CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    @Value("${security.jwt.signing.algorithm}")
+    private String algorithm;
+    @Value("${security.jwt.secret-key:}")
+    private String secretKey;
+    @Value("${security.jwt.signing.rotation-interval}")
+    private Duration rotationInterval;
+    @Value("${security.jwt.signing.prepublish}")
+    private Duration prepublish;
+    @Value("${security.jwt.signing.overlap}")
+    private Duration overlap;
+    @Value("${security.jwt.signing.key-encryption-key:}")
+    private String keyEncryptionKey;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private SecretKey encryptionKey;
+    private volatile Snapshot snapshot;
+
+    public JwtKeyRing(SigningKeyRepository signingKeyRepository) {
+        this.signingKeyRepository = signingKeyRepository;
+    }
+
+    public record ActiveKey(String kid, Key key, SecureDigestAlgorithm<?, ?> algorithm) {
+    }
+
+    private record Snapshot(ActiveKey active, Map<String, PublicKey> verificationKeys, String jwks, String etag) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (isHmac()) {
+            if (secretKey.isBlank()) {
+                throw new IllegalStateException("security.jwt.secret-key is required for HS256 signing");
+            }
+            Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+            String jwks = "{\"keys\":[]}";
+            snapshot = new Snapshot(new ActiveKey(null, key, Jwts.SIG.HS256), Map.of(), jwks, etag(jwks));
+            return;
+        }
+        if (!(Jwts.SIG.get().get(algorithm) instanceof SignatureAlgorithm)) {
+            throw new IllegalStateException("Unsupported JWT signing algorithm: " + algorithm);
+        }
+        if (prepublish.compareTo(rotationInterval) >= 0) {
+            throw new IllegalStateException("security.jwt.signing.prepublish must be shorter than the rotation interval");
+        }
+        byte[] kek = keyEncryptionKey.isBlank() ? new byte[0] : Decoders.BASE64.decode(keyEncryptionKey);
+        if (kek.length != 32) {
+            throw new IllegalStateException("security.jwt.signing.key-encryption-key must be 32 base64-encoded bytes for " + algorithm + " signing");
+        }
+        encryptionKey = new SecretKeySpec(kek, "AES");
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.signing.refresh-interval}")
+    public void refresh() {
+        if (isHmac()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<SigningKey> keys = signingKeyRepository.findByExpiresAtAfterOrderByActivatesAtDesc(now);
+        Instant latestRetirement = keys.stream().map(SigningKey::getRetiresAt).max(Comparator.naturalOrder()).orElse(null);
+        if (latestRetirement == null || latestRetirement.isBefore(now.plus(prepublish))) {
+            Instant activatesAt = latestRetirement == null || latestRetirement.isBefore(now) ? now : latestRetirement;
+            signingKeyRepository.save(generate(now, activatesAt));
+            keys = signingKeyRepository.findByExpiresAtAfterOrderByActivatesAtDesc(now);
+        }
+        snapshot = load(keys, now);
+    }
+
+    public ActiveKey getActiveKey() {
+        return snapshot.active();
+    }
+
+    /**
+     * Resolves the verification key for a token header. HS256 tokens carry no kid; asymmetric tokens must name a key
+     * that is still in the ring.
+     */
+    public Key locate(Header header) {
+        Snapshot current = snapshot;
+        if (isHmac()) {
+            return current.active().key();
+        }
+        String kid = header instanceof JwsHeader jws ? jws.getKeyId() : null;
+        Key key = kid != null ? current.verificationKeys().get(kid) : null;
+        if (key == null) {
+            throw new InvalidKeyException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
+    public String getJwks() {
+        return snapshot.jwks();
+    }
+
+    public String getJwksEtag() {
+        return snapshot.etag();
+    }
+
+    private Snapshot load(List<SigningKey> keys, Instant now) {
+        // Keys are ordered newest activation first; ties between nodes rotating at once resolve by kid.
+        SigningKey active = keys.stream()
+                .filter(k -> !k.getActivatesAt().isAfter(now))
+                .min(Comparator.comparing(SigningKey::getActivatesAt).reversed().thenComparing(SigningKey::getKid))
+                .orElseThrow(() -> new IllegalStateException("No active JWT signing key"));
+
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        PrivateKey activePrivateKey = null;
+        for (SigningKey key : keys) {
+            verificationKeys.put(key.getKid(), decodePublic(key));
+            if (key == active) {
+                activePrivateKey = decodePrivate(key);
+            }
+        }
+        String jwks = keys.stream()
+                .sorted(Comparator.comparing(SigningKey::getKid))
+                .map(k -> Jwks.json(Jwks.builder()
+                        .<PublicKey, PrivateKey>key(verificationKeys.get(k.getKid()))
+                        .id(k.getKid())
+                        .algorithm(k.getAlgorithm())
+                        .publicKeyUse("sig")
+                        .build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+
+        Snapshot previous = snapshot;
+        if (previous == null || !active.getKid().equals(previous.active().kid())) {
+            log.info("JWT signing key {} ({}) is active, {} key(s) published", active.getKid(), active.getAlgorithm(), keys.size());
+        }
+        ActiveKey activeKey = new ActiveKey(active.getKid(), activePrivateKey, Jwts.SIG.get().forKey(active.getAlgorithm()));
+        return new Snapshot(activeKey, Map.copyOf(verificationKeys), jwks, etag(jwks));
+    }
+
+    private SigningKey generate(Instant now, Instant activatesAt) {
+        SignatureAlgorithm signatureAlgorithm = (SignatureAlgorithm) Jwts.SIG.get().forKey(algorithm);
+        KeyPair pair = signatureAlgorithm.keyPair().build();
+        Instant retiresAt = activatesAt.plus(rotationInterval);
+        String kid = UUID.randomUUID().toString();
+        return SigningKey.builder()
+                .kid(kid)
+                .algorithm(signatureAlgorithm.getId())
+                .keyAlgorithm(pair.getPrivate().getAlgorithm())
+                .privateKey(encrypt(kid, pair.getPrivate().getEncoded()))
+                .publicKey(pair.getPublic().getEncoded())
+                .createdAt(now)
+                .activatesAt(activatesAt)
+                .retiresAt(retiresAt)
+                .expiresAt(retiresAt.plus(overlap))
+                .build();
+    }
+
+    private boolean isHmac() {
+        return HMAC_ALGORITHM.equals(algorithm);
+    }
+
+    private static PublicKey decodePublic(SigningKey key) {
+        try {
+            return KeyFactory.getInstance(key.getKeyAlgorithm()).generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable public key " + key.getKid(), e);
+        }
+    }
+
+    private PrivateKey decodePrivate(SigningKey key) {
+        try {
+            return KeyFactory.getInstance(key.getKeyAlgorithm()).generatePrivate(new PKCS8EncodedKeySpec(decrypt(key.getKid(), key.getPrivateKey())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unreadable private key " + key.getKid() + ", check security.jwt.signing.key-encryption-key", e);
+        }
+    }
+
+    // Stored as IV followed by ciphertext and tag.
+    private byte[] encrypt(String kid, byte[] plaintext) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            secureRandom.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(KEY_CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            byte[] stored = Arrays.copyOf(iv, IV_BYTES + ciphertext.length);
+            System.arraycopy(ciphertext, 0, stored, IV_BYTES, ciphertext.length);
+            return stored;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt private key " + kid, e);
+        }
+    }
+
+    private byte[] decrypt(String kid, byte[] stored) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(KEY_CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_BITS, stored, 0, IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(stored, IV_BYTES, stored.length - IV_BYTES);
+    }
+
+    private static String etag(String jwks) {
+        return "\"" + TokenHasher.sha256Hex(jwks).substring(0, 32) + "\"";
+    }
+}
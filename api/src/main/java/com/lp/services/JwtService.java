@@ -1,10 +1,15 @@
 package com.lp.services;
 
+import com.lp.dto.TokenClaims;
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -13,17 +18,41 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret-key}")
-    private String SECRET_KEY;
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String SESSION_EPOCH_CLAIM = "sep";
+    public static final String GLOBAL_EPOCH_CLAIM = "gep";
+    public static final String TOKEN_TYPE_CLAIM = "token_use";
+
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
     @Value("${security.jwt.refresh-token.expiration}")
     private long refreshExpiration;
+
+    private final JwtKeyRing keyRing;
+    private final AuthMetrics metrics;
+    private final SessionEpochService sessionEpochs;
+
+    // Immutable and thread-safe, so it is built once instead of per token; keys are resolved per token by kid.
+    private JwtParser jwtParser;
+
+    public JwtService(JwtKeyRing keyRing, AuthMetrics metrics, SessionEpochService sessionEpochs) {
+        this.keyRing = keyRing;
+        this.metrics = metrics;
+        this.sessionEpochs = sessionEpochs;
+    }
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parser().keyLocator(keyRing::locate).build();
+    }
+
     public String extractUsername(String jwt) {
         return extractClaim(jwt, Claims::getSubject);
     }
@@ -33,16 +62,39 @@ public class JwtService {
         return claimResolver.apply(claims);
     }
 
+    /**
+     * Verifies the signature and expiry of the token exactly once and returns its claims.
+     * Throws a {@link io.jsonwebtoken.JwtException} if the token is malformed, forged or expired.
+     */
+    public TokenClaims validateToken(String jwt) {
+        final Claims claims = extractAllClaims(jwt);
+        final String role = claims.get(ROLE_CLAIM, String.class);
+        final String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        return TokenClaims.builder()
+                .subject(claims.getSubject())
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiration(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .userId(claims.get(USER_ID_CLAIM, Integer.class))
+                .role(role != null ? Role.valueOf(role) : null)
+                .jti(claims.getId())
+                .tokenType(tokenType != null ? TokenType.valueOf(tokenType) : null)
+                .sessionEpoch(intClaim(claims, SESSION_EPOCH_CLAIM))
+                .globalEpoch(intClaim(claims, GLOBAL_EPOCH_CLAIM))
+                .build();
+    }
+
     public String generateAccessToken(
             UserDetails userDetails
     ) {
-        return buildToken(new HashMap<>(), userDetails, jwtExpiration);
+        return buildToken(identityClaims(userDetails), userDetails, jwtExpiration);
     }
 
     public String generateRefreshToken(
             UserDetails userDetails
     ) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, TokenType.REFRESH.name());
+        return buildToken(claims, userDetails, refreshExpiration);
     }
 
     public String buildToken(
@@ -50,42 +102,68 @@ public class JwtService {
             UserDetails userDetails,
             long expiration
     ) {
-        return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+        long now = System.currentTimeMillis();
+        JwtKeyRing.ActiveKey signingKey = keyRing.getActiveKey();
+        return metrics.time(AuthMetrics.Stage.TOKEN_SIGN, () -> Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
+                .claims(extraClaims)
+                .id(UUID.randomUUID().toString())
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey.key(), algorithm(signingKey))
+                .compact());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SecureDigestAlgorithm<Key, ?> algorithm(JwtKeyRing.ActiveKey signingKey) {
+        return (SecureDigestAlgorithm<Key, ?>) signingKey.algorithm();
     }
 
     public Boolean isTokenValid(String jwt, UserDetails userDetails) {
-        final String username = extractUsername(jwt);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(jwt);
+        return isTokenValid(validateToken(jwt), userDetails);
     }
 
-    public long getAccessTokenExpiration() {
-        return jwtExpiration;
+    public boolean isTokenValid(TokenClaims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !claims.isExpired();
     }
 
-    public long getRefreshTokenExpiration() {
-        return refreshExpiration;
+    // Lets JwtAuthFilter authenticate stateless requests from the token alone, and reject it once its epoch is bumped.
+    private Map<String, Object> identityClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TOKEN_TYPE_CLAIM, TokenType.ACCESS.name());
+        Integer userId = null;
+        if (userDetails instanceof User user) {
+            userId = user.getId();
+            claims.put(ROLE_CLAIM, user.getRole().name());
+        } else if (userDetails instanceof UserPrincipal principal) {
+            userId = principal.getId();
+            claims.put(ROLE_CLAIM, principal.getRole().name());
+        }
+        if (userId != null) {
+            claims.put(USER_ID_CLAIM, userId);
+            claims.put(SESSION_EPOCH_CLAIM, sessionEpochs.userEpoch(userId));
+        }
+        claims.put(GLOBAL_EPOCH_CLAIM, sessionEpochs.globalEpoch());
+        return claims;
     }
 
-    private boolean isTokenExpired(String jwt) {
-        return extractExpiration(jwt).before(new Date());
+    private static int intClaim(Claims claims, String name) {
+        Integer value = claims.get(name, Integer.class);
+        return value != null ? value : 0;
     }
 
-    private Date extractExpiration(String jwt) {
-        return extractClaim(jwt, Claims::getExpiration);
+    public long getAccessTokenExpiration() {
+        return jwtExpiration;
     }
 
-    private Claims extractAllClaims(String jwt) {
-        return Jwts.parser().setSigningKey(getSignInKey()).build().parseClaimsJws(jwt).getBody();
+    public long getRefreshTokenExpiration() {
+        return refreshExpiration;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Claims extractAllClaims(String jwt) {
+        return metrics.time(AuthMetrics.Stage.TOKEN_PARSE, () -> jwtParser.parseSignedClaims(jwt).getPayload());
     }
 }
@@ -0,0 +1,146 @@
+package com.lp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lp.exceptions.LoginLockedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts failed logins per account and per source address in memory and locks either out once it crosses its
+ * threshold. Each repeat lockout doubles, up to max-lockout, until the key has been quiet for decay. Nothing is
+ * written to the users table, so a brute-force attempt against a locked key costs one map lookup.
+ */
+@Service
+public class LoginAttemptService {
+
+    private final Cache<String, Attempts> accounts;
+    private final Cache<String, Attempts> sources;
+    private final long windowMillis;
+    private final int accountMaxFailures;
+    private final int sourceMaxFailures;
+    private final long lockoutMillis;
+    private final long maxLockoutMillis;
+
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public LoginAttemptService(
+            @Value("${security.login-attempts.maximum-keys}") long maximumKeys,
+            @Value("${security.login-attempts.window}") Duration window,
+            @Value("${security.login-attempts.account-max-failures}") int accountMaxFailures,
+            @Value("${security.login-attempts.source-max-failures}") int sourceMaxFailures,
+            @Value("${security.login-attempts.lockout}") Duration lockout,
+            @Value("${security.login-attempts.max-lockout}") Duration maxLockout,
+            @Value("${security.login-attempts.decay}") Duration decay
+    ) {
+        this.accounts = Caffeine.newBuilder().maximumSize(maximumKeys).expireAfterAccess(decay).build();
+        this.sources = Caffeine.newBuilder().maximumSize(maximumKeys).expireAfterAccess(decay).build();
+        this.windowMillis = window.toMillis();
+        this.accountMaxFailures = accountMaxFailures;
+        this.sourceMaxFailures = sourceMaxFailures;
+        this.lockoutMillis = lockout.toMillis();
+        this.maxLockoutMillis = maxLockout.toMillis();
+    }
+
+    // Call before authenticating, so a locked account or source never reaches the password encoder.
+    public void checkAllowed(String account, String source) {
+        long now = System.currentTimeMillis();
+        long wait = Math.max(lockedFor(accounts, key(account), now), lockedFor(sources, source, now));
+        if (wait > 0) {
+            rejected.increment();
+            throw new LoginLockedException(Duration.ofMillis(wait));
+        }
+    }
+
+    public boolean isLocked(String account) {
+        return lockedFor(accounts, key(account), System.currentTimeMillis()) > 0;
+    }
+
+    public void recordFailure(String account, String source) {
+        long now = System.currentTimeMillis();
+        failures.increment();
+        if (account != null && accounts.get(key(account), k -> new Attempts()).fail(now, accountMaxFailures)) {
+            lockouts.increment();
+        }
+        if (source != null && sources.get(source, k -> new Attempts()).fail(now, sourceMaxFailures)) {
+            lockouts.increment();
+        }
+    }
+
+    public void recordSuccess(String account) {
+        if (account != null) {
+            accounts.invalidate(key(account));
+        }
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getLockouts() {
+        return lockouts.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getTrackedKeys() {
+        return accounts.estimatedSize() + sources.estimatedSize();
+    }
+
+    private long lockedFor(Cache<String, Attempts> cache, String key, long now) {
+        if (key == null) {
+            return 0;
+        }
+        Attempts attempts = cache.getIfPresent(key);
+        return attempts == null ? 0 : attempts.lockedFor(now);
+    }
+
+    private static String key(String account) {
+        return account == null ? null : account.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Sliding window estimated from the current and previous fixed windows, so each key is a few longs.
+    private final class Attempts {
+
+        private long windowStart = System.currentTimeMillis();
+        private int current;
+        private int previous;
+        private int level;
+        private long lockedUntil;
+
+        synchronized long lockedFor(long now) {
+            return Math.max(0, lockedUntil - now);
+        }
+
+        synchronized boolean fail(long now, int maxFailures) {
+            long elapsed = now - windowStart;
+            if (elapsed >= 2 * windowMillis) {
+                previous = 0;
+                current = 0;
+                windowStart = now;
+            } else if (elapsed >= windowMillis) {
+                previous = current;
+                current = 0;
+                windowStart += windowMillis;
+            }
+            current++;
+            double previousWeight = (double) (windowMillis - (now - windowStart)) / windowMillis;
+            if (previous * previousWeight + current < maxFailures) {
+                return false;
+            }
+            lockedUntil = now + Math.min(lockoutMillis << Math.min(level, 30), maxLockoutMillis);
+            level++;
+            previous = 0;
+            current = 0;
+            return true;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.lp.services;
 
-import com.lp.repository.TokenRepository;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -10,7 +9,6 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.CookieValue;
 
 import java.util.Arrays;
 
@@ -18,42 +16,24 @@ import java.util.Arrays;
 @RequiredArgsConstructor
 public class LogoutService implements LogoutHandler {
 
-    private final TokenRepository tokenRepository;
+    private final AccessTokenService accessTokenService;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
     public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
-//        final String authHeader = request.getHeader("Authorization");
-//        final String jwt;
-//
-//        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-//            return;
-//        }
-//
-//        jwt = authHeader.substring(7);
-//        var storedToken = tokenRepository.findByToken(jwt)
-//                .orElse(null);
-//        if (storedToken != null) {
-//            storedToken.setRevoked(true);
-//            tokenRepository.save(storedToken);
-//        }
-
-
+        final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            accessTokenService.revoke(authHeader.substring(7));
+        }
 
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
-            System.out.println(Arrays.toString(cookies));
             Arrays.stream(cookies)
                     .filter(cookie -> "refreshToken".equals(cookie.getName()))
                     .findFirst()
                     .ifPresent(refreshCookie -> {
                         String refreshToken = refreshCookie.getValue();
-                        System.out.println(refreshToken);
-
-                        var storedRefreshToken = tokenRepository.findByToken(refreshToken).orElse(null);
-                        if (storedRefreshToken != null && !storedRefreshToken.isRevoked()) {
-                            storedRefreshToken.setRevoked(true);
-                            tokenRepository.save(storedRefreshToken);
-                        }
+                        refreshTokenService.revoke(refreshToken);
 
                         ResponseCookie clearedCookie = ResponseCookie.from("refreshToken", "")
                                 .httpOnly(true)
@@ -0,0 +1,56 @@
+package com.lp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lp.config.RateLimitProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets kept as a single theoretical arrival time per key (GCRA), so taking a permit is one CAS on an
+ * AtomicLong with no lock. Buckets live in a size-bounded cache and are dropped once idle; a dropped bucket
+ * comes back full, which is what it would have refilled to anyway.
+ */
+@Service
+public class RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * Takes one permit from the bucket for this key. Returns 0 if it was granted, otherwise the nanoseconds until
+     * the next permit becomes available.
+     */
+    public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long interval = limit.intervalNanos();
+        long burst = interval * limit.getCapacity();
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrival.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    public Cache<?, ?> getCache() {
+        return buckets;
+    }
+}
@@ -0,0 +1,115 @@
+package com.lp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lp.config.ReplicaProperties;
+import com.lp.entities.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads that could observe replica lag on the primary: reads of a user this instance changed within the
+ * last {@code persistence.replica.max-lag}, and every read-only transaction later in a request that already wrote.
+ * Writes made by other instances are covered by the lag bound alone.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final String REQUEST_PINNED = ReadYourWrites.class.getName() + ".PINNED";
+
+    private final boolean enabled;
+    private final Cache<Object, Boolean> recentWrites;
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    public ReadYourWrites(ReplicaProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(properties.getTrackedWrites())
+                .expireAfterWrite(properties.getMaxLag())
+                .build();
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserWritten(User user) {
+        if (!enabled) {
+            return;
+        }
+        Integer id = user.getId();
+        String email = user.getEmail();
+        record(id, email);
+        // Replicas can only start catching up once the row is committed, so the window starts again there.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(id, email);
+                }
+            });
+        }
+    }
+
+    // For bulk updates, which bypass the entity listener.
+    public void recordUserWrite(Integer id) {
+        if (enabled) {
+            record(id, null);
+        }
+    }
+
+    public <T> T readUser(Integer id, Supplier<T> read) {
+        return enabled && recentWrites.getIfPresent(id) != null ? onPrimary(read) : read.get();
+    }
+
+    public <T> T readUser(String email, Supplier<T> read) {
+        return enabled && recentWrites.getIfPresent(email) != null ? onPrimary(read) : read.get();
+    }
+
+    // For reads whose result is written back, where even a bounded-stale row would be wrong.
+    public <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = pinned.get();
+        pinned.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                pinned.remove();
+            } else {
+                pinned.set(previous);
+            }
+        }
+    }
+
+    // Called when a request opens a read-write transaction; later reads in it must see that write.
+    public void pinRequest() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(REQUEST_PINNED, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public boolean isPinned() {
+        if (pinned.get() != null) {
+            return true;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request != null && request.getAttribute(REQUEST_PINNED, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    private void record(Integer id, String email) {
+        if (id != null) {
+            recentWrites.put(id, Boolean.TRUE);
+        }
+        if (email != null) {
+            recentWrites.put(email, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.lp.services;
+
+import com.lp.dto.RefreshTokenView;
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.Token;
+import com.lp.entities.User;
+import com.lp.enums.RefreshTokenFormat;
+import com.lp.enums.TokenType;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int OPAQUE_TOKEN_BYTES = 32;
+    private static final int REVOKE_BATCH_SIZE = 1000;
+
+    private final TokenRepository tokenRepository;
+    private final UserRepository userRepository;
+    private final JwtService jwtService;
+    private final AuthMetrics metrics;
+    private final SessionEpochService sessionEpochs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${security.jwt.refresh-token.format}")
+    private RefreshTokenFormat format;
+    @Value("${security.jwt.refresh-token.reuse-grace}")
+    private Duration reuseGrace;
+
+    public record Rotation(UserPrincipal user, String refreshToken) {
+    }
+
+    // Revoking the previous tokens and inserting the new one commit together.
+    @Transactional
+    public String issue(UserPrincipal principal) {
+        revokeAll(principal.getId());
+        return store(userRepository.getReferenceById(principal.getId()), principal, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one in the same family. A token that was already retired is treated as
+     * stolen and revokes its whole family; an empty result means the caller must log in again.
+     */
+    @Transactional
+    public Optional<Rotation> rotate(String refreshToken) {
+        // JWT refresh tokens are signature-checked first so forged ones never reach the database.
+        String subject = isJwt(refreshToken) ? jwtService.validateToken(refreshToken).getSubject() : null;
+        var found = metrics.time(AuthMetrics.Stage.TOKEN_LOOKUP, () -> tokenRepository.findRefreshTokenView(TokenHasher.sha256Hex(refreshToken)));
+        if (found.isEmpty() || (subject != null && !subject.equals(found.get().getEmail()))) {
+            return Optional.empty();
+        }
+
+        var view = found.get();
+        var now = Instant.now();
+        if (view.isRevoked()) {
+            if (view.getRevokedAt() == null || view.getRevokedAt().isBefore(now.minus(reuseGrace))) {
+                revokeFamily(view, now);
+            }
+            return Optional.empty();
+        }
+        if (!view.isEnabled() || view.getExpiresAt() == null || view.getExpiresAt().isBefore(now)) {
+            return Optional.empty();
+        }
+        // Ended by a session epoch bump rather than revoked, so this is not reuse.
+        sessionEpochs.remember(view.getUserId(), view.getUserSessionEpoch());
+        if (view.getSessionEpoch() < view.getUserSessionEpoch() || view.getGlobalEpoch() < sessionEpochs.globalEpoch()) {
+            return Optional.empty();
+        }
+        // Retired between the lookup and here: a concurrent rotation won the race, which is not reuse. Revoking the
+        // family would end the session the winner just continued.
+        if (metrics.time(AuthMetrics.Stage.TOKEN_REVOKE, () -> tokenRepository.retire(view.getTokenId(), now)) == 0) {
+            return Optional.empty();
+        }
+
+        var principal = UserPrincipal.builder()
+                .id(view.getUserId())
+                .email(view.getEmail())
+                .role(view.getRole())
+                .enabled(view.isEnabled())
+                .build();
+        var rotated = store(userRepository.getReferenceById(view.getUserId()), principal, view.getFamily());
+        return Optional.of(new Rotation(principal, rotated));
+    }
+
+    // A single conditional update; the row is never loaded into the persistence context.
+    @Transactional
+    public void revoke(String refreshToken) {
+        metrics.run(AuthMetrics.Stage.TOKEN_REVOKE, () -> tokenRepository.revokeByTokenHash(TokenHasher.sha256Hex(refreshToken), Instant.now()));
+    }
+
+    @Transactional
+    public int revokeAll(Integer userId) {
+        return metrics.time(AuthMetrics.Stage.TOKEN_REVOKE, () -> tokenRepository.revokeAllByUserIdAndTokenType(userId, TokenType.REFRESH, Instant.now()));
+    }
+
+    @Transactional
+    public int revokeAllForUsers(List<Integer> userIds) {
+        var now = Instant.now();
+        int revoked = 0;
+        for (int from = 0; from < userIds.size(); from += REVOKE_BATCH_SIZE) {
+            revoked += tokenRepository.revokeAllByUserIdIn(userIds.subList(from, Math.min(from + REVOKE_BATCH_SIZE, userIds.size())), now);
+        }
+        return revoked;
+    }
+
+    private String store(User owner, UserPrincipal principal, String family) {
+        String refreshToken = format == RefreshTokenFormat.OPAQUE
+                ? generateOpaqueToken()
+                : jwtService.generateRefreshToken(principal);
+        var token = Token.builder()
+                .user(owner)
+                .tokenHash(TokenHasher.sha256Hex(refreshToken))
+                .tokenType(TokenType.REFRESH)
+                .revoked(false)
+                .expiresAt(Instant.now().plusMillis(jwtService.getRefreshTokenExpiration()))
+                .family(family)
+                .sessionEpoch(sessionEpochs.userEpoch(principal.getId()))
+                .globalEpoch(sessionEpochs.globalEpoch())
+                .build();
+        metrics.run(AuthMetrics.Stage.TOKEN_PERSIST, () -> tokenRepository.save(token));
+        return refreshToken;
+    }
+
+    private void revokeFamily(RefreshTokenView view, Instant now) {
+        int revoked = metrics.time(AuthMetrics.Stage.TOKEN_REVOKE, () -> tokenRepository.revokeFamily(view.getFamily(), now));
+        log.warn("Refresh token reuse detected for user {}, revoked {} tokens in its family", view.getUserId(), revoked);
+    }
+
+    private String generateOpaqueToken() {
+        byte[] bytes = new byte[OPAQUE_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private boolean isJwt(String token) {
+        return token.indexOf('.') >= 0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.lp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lp.dto.TokenClaims;
+import com.lp.entities.SessionEpoch;
+import com.lp.repository.SessionEpochRepository;
+import com.lp.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Every token carries the owner's session epoch and the global epoch it was issued under, and is only accepted while
+ * both are current. Ending all of a user's sessions, or everyone's, is then a single-row update instead of a write per
+ * token. Other nodes see a bump once their cached value expires, within {@code security.session-epoch.cache-ttl}.
+ */
+@Slf4j
+@Service
+public class SessionEpochService {
+
+    private static final int BUMP_BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final SessionEpochRepository sessionEpochRepository;
+    private final ReadYourWrites readYourWrites;
+    private final Cache<Integer, Integer> userEpochs;
+    private volatile int globalEpoch;
+
+    public SessionEpochService(
+            UserRepository userRepository,
+            SessionEpochRepository sessionEpochRepository,
+            ReadYourWrites readYourWrites,
+            @Value("${security.session-epoch.cache-ttl}") Duration cacheTtl,
+            @Value("${security.session-epoch.maximum-size}") long maximumSize
+    ) {
+        this.userRepository = userRepository;
+        this.sessionEpochRepository = sessionEpochRepository;
+        this.readYourWrites = readYourWrites;
+        this.userEpochs = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    // On the primary: a replica may not have the row yet, and reading it there first would recreate it.
+    @PostConstruct
+    void init() {
+        readYourWrites.onPrimary(() -> {
+            if (!sessionEpochRepository.existsById(SessionEpoch.GLOBAL)) {
+                try {
+                    sessionEpochRepository.save(SessionEpoch.builder().scope(SessionEpoch.GLOBAL).epoch(0).build());
+                } catch (DataIntegrityViolationException e) {
+                    // Another node created it first.
+                }
+            }
+            refreshGlobalEpoch();
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${security.session-epoch.global-refresh-interval}")
+    public void refreshGlobalEpoch() {
+        sessionEpochRepository.findEpoch(SessionEpoch.GLOBAL).ifPresent(this::advanceGlobal);
+    }
+
+    public boolean isCurrent(TokenClaims claims) {
+        if (claims.getGlobalEpoch() < globalEpoch) {
+            return false;
+        }
+        // For access tokens only; a token without a user id cannot be tied to an epoch, so it is never current.
+        // Refresh tokens are checked against the epochs stamped on their database row.
+        return claims.getUserId() != null && claims.getSessionEpoch() >= userEpoch(claims.getUserId());
+    }
+
+    public int userEpoch(Integer userId) {
+        return userEpochs.get(userId, id -> readYourWrites.readUser(id, () -> userRepository.findSessionEpochById(id)).orElse(0));
+    }
+
+    // For token issue at login, so a bump made on another node within the cache TTL is never stamped into a new token.
+    public int reloadUserEpoch(Integer userId) {
+        int epoch = readYourWrites.onPrimary(() -> userRepository.findSessionEpochById(userId)).orElse(0);
+        remember(userId, epoch);
+        return epoch;
+    }
+
+    public int globalEpoch() {
+        return globalEpoch;
+    }
+
+    // Seeds the cache from a row that was read anyway; epochs only grow, so an older value never wins.
+    public void remember(Integer userId, int epoch) {
+        userEpochs.asMap().merge(userId, epoch, Math::max);
+    }
+
+    @Transactional
+    public int invalidateUser(Integer userId) {
+        if (userRepository.incrementSessionEpochs(List.of(userId)) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        int epoch = userRepository.findSessionEpochById(userId).orElseThrow();
+        afterCommit(() -> remember(userId, epoch));
+        return epoch;
+    }
+
+    // One update per thousand users, however many tokens they hold.
+    @Transactional
+    public int invalidateUsers(List<Integer> userIds) {
+        int updated = 0;
+        for (int from = 0; from < userIds.size(); from += BUMP_BATCH_SIZE) {
+            updated += userRepository.incrementSessionEpochs(userIds.subList(from, Math.min(from + BUMP_BATCH_SIZE, userIds.size())));
+        }
+        afterCommit(() -> evict(userIds));
+        return updated;
+    }
+
+    @Transactional
+    public int invalidateAll() {
+        sessionEpochRepository.increment(SessionEpoch.GLOBAL);
+        int epoch = sessionEpochRepository.findEpoch(SessionEpoch.GLOBAL).orElseThrow();
+        afterCommit(() -> advanceGlobal(epoch));
+        log.warn("Global session epoch bumped to {}, every issued token is now rejected", epoch);
+        return epoch;
+    }
+
+    // The next check reloads from the primary, since a replica may not have the bump yet.
+    private void evict(Collection<Integer> userIds) {
+        userIds.forEach(readYourWrites::recordUserWrite);
+        userEpochs.invalidateAll(userIds);
+    }
+
+    private synchronized void advanceGlobal(int epoch) {
+        if (epoch > globalEpoch) {
+            globalEpoch = epoch;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.lp.services;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+// Keeps authenticated SMTP connections open between dispatcher runs instead of a new handshake per message.
+@Component
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int poolSize;
+    private final Duration idleTimeout;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    public SmtpTransportPool(
+            JavaMailSenderImpl mailSender,
+            @Value("${email.outbox.smtp.pool-size}") int poolSize,
+            @Value("${email.outbox.smtp.idle-timeout}") Duration idleTimeout
+    ) {
+        this.mailSender = mailSender;
+        this.poolSize = poolSize;
+        this.idleTimeout = idleTimeout;
+        this.permits = new Semaphore(poolSize);
+    }
+
+    public PooledTransport borrow() throws MessagingException, InterruptedException {
+        permits.acquire();
+        try {
+            PooledTransport transport;
+            while ((transport = idle.pollFirst()) != null) {
+                if (transport.isUsable()) {
+                    return transport;
+                }
+                transport.close();
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(PooledTransport transport) {
+        if (transport.isUsable()) {
+            transport.lastUsed = System.nanoTime();
+            idle.offerFirst(transport);
+        } else {
+            transport.close();
+        }
+        permits.release();
+    }
+
+    public void evictIdle() {
+        idle.removeIf(transport -> {
+            if (transport.isUsable()) {
+                return false;
+            }
+            transport.close();
+            return true;
+        });
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            transport.close();
+        }
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        Transport transport = mailSender.getSession().getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return new PooledTransport(transport);
+    }
+
+    public class PooledTransport {
+
+        private final Transport transport;
+        private long lastUsed = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        public boolean isConnected() {
+            return transport.isConnected();
+        }
+
+        private boolean isUsable() {
+            return transport.isConnected() && System.nanoTime() - lastUsed < idleTimeout.toNanos();
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+                // the connection is being discarded either way
+            }
+        }
+    }
+}
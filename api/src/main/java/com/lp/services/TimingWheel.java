@@ -0,0 +1,83 @@
+package com.lp.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@value #LEVELS} levels of {@value #SLOTS} slots, each level's slot spanning a
+ * whole turn of the level below. Scheduling and expiring are O(1) per entry; entries move down a level at most
+ * {@value #LEVELS} times before they fire. Deadlines beyond the top level's range are clamped to it.
+ * <p>
+ * Entries cannot be cancelled; callers check on expiry whether the entry is still current.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private record Timer<T>(T value, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    public synchronized void schedule(T value, long deadlineMillis) {
+        long deadlineTick = Math.min(Math.max(deadlineMillis / tickMillis, currentTick + 1), currentTick + MAX_DELAY_TICKS);
+        place(new Timer<>(value, deadlineTick));
+        size++;
+    }
+
+    /** Advances the wheel to nowMillis and hands every entry whose deadline has passed to onExpired. */
+    public synchronized void advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Pull the next turn's entries down from the higher levels before firing this tick's slot.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    List<Timer<T>> cascading = takeSlot(level, (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+                    cascading.forEach(this::place);
+                }
+            }
+            List<Timer<T>> expired = takeSlot(0, (int) (currentTick & (SLOTS - 1)));
+            size -= expired.size();
+            expired.forEach(timer -> onExpired.accept(timer.value()));
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.deadlineTick() - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((timer.deadlineTick() >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        slots.get(level * SLOTS + slot).add(timer);
+    }
+
+    private List<Timer<T>> takeSlot(int level, int slot) {
+        List<Timer<T>> timers = slots.get(level * SLOTS + slot);
+        if (timers.isEmpty()) {
+            return List.of();
+        }
+        slots.set(level * SLOTS + slot, new ArrayList<>());
+        return timers;
+    }
+}
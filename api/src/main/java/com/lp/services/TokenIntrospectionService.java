@@ -0,0 +1,156 @@
+package com.lp.services;
+
+import com.lp.dto.RefreshTokenStatus;
+import com.lp.dto.TokenClaims;
+import com.lp.dto.TokenIntrospection;
+import com.lp.repository.TokenRepository;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class TokenIntrospectionService {
+
+    private static final String ACCESS_TOKEN = "access_token";
+    private static final String REFRESH_TOKEN = "refresh_token";
+    // Below this, handing the batch to the pool costs more than verifying it inline.
+    private static final int PARALLEL_THRESHOLD = 8;
+
+    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final TokenRepository tokenRepository;
+    private final SessionEpochService sessionEpochs;
+    private final ForkJoinPool verificationPool;
+    private final int maxBatchSize;
+
+    public TokenIntrospectionService(
+            JwtService jwtService,
+            VerifiedTokenCache verifiedTokenCache,
+            AccessTokenDenylist accessTokenDenylist,
+            TokenRepository tokenRepository,
+            SessionEpochService sessionEpochs,
+            @Value("${security.introspection.max-batch-size}") int maxBatchSize,
+            @Value("${security.introspection.parallelism:0}") int parallelism
+    ) {
+        this.jwtService = jwtService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.tokenRepository = tokenRepository;
+        this.sessionEpochs = sessionEpochs;
+        this.maxBatchSize = maxBatchSize;
+        // Signature checks are pure CPU work, so they get their own pool sized to the cores
+        // rather than competing with everything else on the common pool.
+        this.verificationPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    private record Verified(TokenClaims claims, String tokenHash, boolean active) {
+
+        static final Verified INVALID = new Verified(null, null, false);
+
+        boolean isRefresh() {
+            return tokenHash != null;
+        }
+    }
+
+    /**
+     * Verifies every token in the batch and returns one result per token, in request order. Access tokens are
+     * checked against the in-memory denylist; refresh tokens are looked up in a single query for the whole batch.
+     */
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " tokens can be introspected per request");
+        }
+
+        List<Verified> verified = tokens.size() < PARALLEL_THRESHOLD
+                ? tokens.stream().map(this::verify).toList()
+                : verificationPool.submit(() -> tokens.parallelStream().map(this::verify).toList()).join();
+
+        List<String> refreshHashes = verified.stream()
+                .filter(v -> v.active() && v.isRefresh())
+                .map(Verified::tokenHash)
+                .distinct()
+                .toList();
+        Map<String, RefreshTokenStatus> statuses = refreshHashes.isEmpty()
+                ? Map.of()
+                : tokenRepository.findRefreshTokenStatuses(refreshHashes).stream()
+                        .collect(Collectors.toMap(RefreshTokenStatus::getTokenHash, Function.identity()));
+
+        Instant now = Instant.now();
+        return verified.stream()
+                .map(v -> v.isRefresh() ? refreshResult(v, statuses.get(v.tokenHash()), now) : accessResult(v))
+                .toList();
+    }
+
+    private Verified verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Verified.INVALID;
+        }
+        if (token.indexOf('.') < 0) {
+            // Opaque refresh token: only the database knows about it.
+            return new Verified(null, TokenHasher.sha256Hex(token), true);
+        }
+        final TokenClaims claims;
+        try {
+            claims = verifiedTokenCache.get(token, jwtService::validateToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Verified.INVALID;
+        }
+        if (claims.isRefreshToken()) {
+            return new Verified(claims, TokenHasher.sha256Hex(token), true);
+        }
+        return new Verified(claims, null, !claims.isExpired() && !accessTokenDenylist.isRevoked(claims.getJti()) && sessionEpochs.isCurrent(claims));
+    }
+
+    private TokenIntrospection accessResult(Verified verified) {
+        if (!verified.active()) {
+            return TokenIntrospection.inactive();
+        }
+        TokenClaims claims = verified.claims();
+        return TokenIntrospection.builder()
+                .active(true)
+                .tokenType(ACCESS_TOKEN)
+                .sub(claims.getSubject())
+                .uid(claims.getUserId())
+                .role(claims.getRole())
+                .jti(claims.getJti())
+                .iat(claims.getIssuedAt() != null ? claims.getIssuedAt().getEpochSecond() : null)
+                .exp(claims.getExpiration() != null ? claims.getExpiration().getEpochSecond() : null)
+                .build();
+    }
+
+    private TokenIntrospection refreshResult(Verified verified, RefreshTokenStatus status, Instant now) {
+        if (!verified.active()
+                || status == null
+                || status.isRevoked()
+                || status.getSessionEpoch() < status.getUserSessionEpoch()
+                || status.getGlobalEpoch() < sessionEpochs.globalEpoch()
+                || !status.isEnabled()
+                || status.getExpiresAt() == null
+                || status.getExpiresAt().isBefore(now)
+                || (verified.claims() != null && !status.getEmail().equals(verified.claims().getSubject()))) {
+            return TokenIntrospection.inactive();
+        }
+        return TokenIntrospection.builder()
+                .active(true)
+                .tokenType(REFRESH_TOKEN)
+                .sub(status.getEmail())
+                .uid(status.getUserId())
+                .role(status.getRole())
+                .exp(status.getExpiresAt().getEpochSecond())
+                .build();
+    }
+
+    @PreDestroy
+    void close() {
+        verificationPool.shutdown();
+    }
+}
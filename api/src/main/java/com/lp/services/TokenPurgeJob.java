@@ -0,0 +1,158 @@
+package com.lp.services;
+
+import com.lp.repository.TokenRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Deletes expired and long-revoked tokens in small keyset batches, each in its own short transaction,
+// so no run holds row locks for longer than one batch. Runs on its own thread: a run sleeps between batches
+// for up to max-run-duration, which would otherwise hold up every other task on the shared scheduler.
+@Slf4j
+@Component
+public class TokenPurgeJob {
+
+    private final TokenRepository tokenRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${security.token-purge.enabled}")
+    private boolean enabled;
+    @Value("${security.token-purge.expired-retention}")
+    private Duration expiredRetention;
+    @Value("${security.token-purge.revoked-retention}")
+    private Duration revokedRetention;
+    @Value("${security.token-purge.batch-size}")
+    private int batchSize;
+    @Value("${security.token-purge.batch-pause}")
+    private Duration batchPause;
+    @Value("${security.token-purge.max-run-duration}")
+    private Duration maxRunDuration;
+    @Value("${security.token-purge.lock-timeout}")
+    private Duration lockTimeout;
+    @Value("${spring.jpa.database:}")
+    private String database;
+
+    private final LongAdder rowsRemoved = new LongAdder();
+    private final LongAdder runs = new LongAdder();
+    private final AtomicLong lastRunRows = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TokenPurgeJob(TokenRepository tokenRepository, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.tokenRepository = tokenRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void close() {
+        executor.shutdownNow();
+    }
+
+    // A run still going when the next one is due is left to finish rather than queued behind.
+    @Scheduled(cron = "${security.token-purge.cron}")
+    public void schedule() {
+        if (enabled && running.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    purge();
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxRunDuration.toNanos();
+        var now = Instant.now();
+        var expiredBefore = now.minus(expiredRetention);
+        var revokedBefore = now.minus(revokedRetention);
+
+        long removed = 0;
+        int afterId = 0;
+        while (System.nanoTime() < deadline) {
+            int cursor = afterId;
+            List<Integer> batch = transactionTemplate.execute(status -> deleteBatch(cursor, expiredBefore, revokedBefore));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            removed += batch.size();
+            afterId = batch.get(batch.size() - 1);
+            if (batch.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        runs.increment();
+        rowsRemoved.add(removed);
+        lastRunRows.set(removed);
+        lastRunMillis.set(elapsedMillis);
+        if (removed > 0) {
+            log.info("Purged {} expired or revoked tokens in {} ms", removed, elapsedMillis);
+        }
+    }
+
+    private List<Integer> deleteBatch(int afterId, Instant expiredBefore, Instant revokedBefore) {
+        if ("postgresql".equalsIgnoreCase(database)) {
+            entityManager.createNativeQuery("set local lock_timeout = '" + lockTimeout.toMillis() + "ms'").executeUpdate();
+        }
+        var ids = tokenRepository.findPurgeableIds(afterId, expiredBefore, revokedBefore, Limit.of(batchSize));
+        if (!ids.isEmpty()) {
+            tokenRepository.deleteByIdIn(ids);
+        }
+        return ids;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public long getRowsRemoved() {
+        return rowsRemoved.sum();
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public long getLastRunRows() {
+        return lastRunRows.get();
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis.get();
+    }
+}
@@ -0,0 +1,38 @@
+package com.lp.services;
+
+import com.lp.entities.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Evicts the cached snapshot whenever a user row changes (enabled flag, role, password, ...).
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictionListener {
+
+    private final ObjectProvider<CachedUserDetailsService> userDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        var cache = userDetailsService.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        String email = user.getEmail();
+        cache.evict(email);
+        // A concurrent reader may re-cache the old row before commit, so evict again once it is visible.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(email);
+                }
+            });
+        }
+    }
+}
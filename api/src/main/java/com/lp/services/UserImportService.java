@@ -0,0 +1,390 @@
+package com.lp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.dto.UserImportEvent;
+import com.lp.dto.UserImportRow;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.enums.VerificationMode;
+import com.lp.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Creates accounts from an NDJSON or CSV stream, one batch of {@code security.user-import.batch-size} rows at a
+ * time: while one batch is inserted in a single transaction, the next is already being hashed on a pool of its own,
+ * so the file is never held in memory and logins keep the hashing pool sized for them.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final int MAX_EMAIL_LENGTH = 255;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final VerificationCodeStore verificationCodeStore;
+    private final AuthService authService;
+    private final ObjectMapper objectMapper;
+    private final BCryptPasswordEncoder encoder;
+    private final ExecutorService hashingExecutor;
+    private final int batchSize;
+    private final LongAdder importedRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+
+    public UserImportService(
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            VerificationCodeStore verificationCodeStore,
+            AuthService authService,
+            ObjectMapper objectMapper,
+            BoundedPasswordEncoder passwordEncoder,
+            @Value("${security.user-import.batch-size}") int batchSize,
+            @Value("${security.user-import.hash-threads}") int hashThreads
+    ) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.verificationCodeStore = verificationCodeStore;
+        this.authService = authService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        // Same cost as interactive hashing, so imported users are not re-hashed on first login.
+        this.encoder = new BCryptPasswordEncoder(passwordEncoder.getStrength());
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        // Unbounded queue, but an import never has more than two batches in flight.
+        this.hashingExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        hashingExecutor.shutdownNow();
+    }
+
+    /**
+     * Reads rows until the end of {@code reader}, reporting each rejected row, progress after every batch, and a
+     * final summary to {@code events}. Batches already committed stay committed if the stream fails part way.
+     */
+    public UserImportEvent importUsers(BufferedReader reader, Format format, VerificationMode verification,
+                                       Consumer<UserImportEvent> events) throws IOException {
+        Run run = new Run(verification, events, System.nanoTime());
+        CsvColumns columns = null;
+        List<Row> batch = new ArrayList<>(batchSize);
+        HashedBatch inFlight = null;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = CsvColumns.parse(line);
+                continue;
+            }
+            Row row = parse(line, lineNumber, format, columns, run);
+            if (row == null) {
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                inFlight = advance(inFlight, batch, run);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        inFlight = advance(inFlight, batch, run);
+        if (inFlight != null) {
+            complete(inFlight, run);
+        }
+        UserImportEvent summary = run.event(UserImportEvent.SUMMARY);
+        events.accept(summary);
+        log.info("Imported {} users, {} rows rejected, in {} ms", summary.getImported(), summary.getFailed(), summary.getElapsedMillis());
+        return summary;
+    }
+
+    public long getImportedRows() {
+        return importedRows.sum();
+    }
+
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    // Starts hashing the new batch, then inserts the previous one while those hashes run.
+    private HashedBatch advance(HashedBatch previous, List<Row> rows, Run run) {
+        HashedBatch next = rows.isEmpty() ? null : hash(rows);
+        if (previous != null) {
+            complete(previous, run);
+        }
+        return next;
+    }
+
+    private HashedBatch hash(List<Row> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            hashes.add(row.passwordHash() != null
+                    ? CompletableFuture.completedFuture(row.passwordHash())
+                    : hashingExecutor.submit(() -> encoder.encode(row.password())));
+        }
+        return new HashedBatch(rows, hashes);
+    }
+
+    private void complete(HashedBatch batch, Run run) {
+        List<Pending> pending = new ArrayList<>(batch.rows().size());
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < batch.rows().size(); i++) {
+            Row row = batch.rows().get(i);
+            String hash;
+            try {
+                hash = batch.hashes().get(i).get();
+            } catch (ExecutionException e) {
+                // e.g. a password over BCrypt's 72 byte limit
+                run.reject(row.line(), row.email(), e.getCause().getMessage());
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            }
+            if (!emails.add(row.email())) {
+                run.reject(row.line(), row.email(), "Duplicate email in import");
+                continue;
+            }
+            pending.add(new Pending(row, User.builder()
+                    .email(row.email())
+                    .password(hash)
+                    .role(Role.USER)
+                    .enabled(run.verification() == VerificationMode.SKIP)
+                    .build()));
+        }
+        insert(pending, run);
+        run.events().accept(run.event(UserImportEvent.PROGRESS));
+    }
+
+    private void insert(List<Pending> pending, Run run) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Saved saved;
+        try {
+            saved = transactionTemplate.execute(status -> save(pending));
+        } catch (DataIntegrityViolationException e) {
+            // A registration raced the import for one of the emails; find it one row at a time.
+            for (Pending row : pending) {
+                row.user().setId(null);
+                try {
+                    saved = transactionTemplate.execute(status -> save(List.of(row)));
+                } catch (DataIntegrityViolationException rowError) {
+                    saved = new Saved(List.of(row), List.of());
+                }
+                if (saved.existing().isEmpty()) {
+                    run.imported(1);
+                    sendVerification(saved.users(), run.verification());
+                } else {
+                    run.reject(row.row().line(), row.row().email(), "Email already registered");
+                }
+            }
+            return;
+        }
+        run.imported(saved.users().size());
+        saved.existing().forEach(row -> run.reject(row.row().line(), row.row().email(), "Email already registered"));
+        sendVerification(saved.users(), run.verification());
+    }
+
+    // Skips the rows whose email is already taken.
+    private Saved save(List<Pending> pending) {
+        Set<String> taken = new HashSet<>(userRepository.findExistingEmails(pending.stream().map(row -> row.row().email()).toList()));
+        List<Pending> existing = pending.stream().filter(row -> taken.contains(row.row().email())).toList();
+        List<User> users = pending.stream().filter(row -> !taken.contains(row.row().email())).map(Pending::user).toList();
+        userRepository.saveAll(users);
+        return new Saved(existing, users);
+    }
+
+    // Only once the users are committed: a batch rolled back and retried row by row gets new ids.
+    private void sendVerification(List<User> users, VerificationMode verification) {
+        if (verification != VerificationMode.SEND || users.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                users.forEach(user -> authService.sendVerificationEmail(user, verificationCodeStore.issue(user.getId()))));
+    }
+
+    private Row parse(String line, int lineNumber, Format format, CsvColumns columns, Run run) {
+        UserImportRow row;
+        try {
+            row = format == Format.CSV ? columns.read(line) : objectMapper.readValue(line, UserImportRow.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            run.reject(lineNumber, null, "Unreadable row");
+            return null;
+        }
+        String email = row.getEmail() == null ? "" : row.getEmail().trim();
+        String password = row.getPassword() == null || row.getPassword().isEmpty() ? null : row.getPassword();
+        String passwordHash = row.getPasswordHash() == null || row.getPasswordHash().isBlank() ? null : row.getPasswordHash().trim();
+        String error = null;
+        if (email.length() > MAX_EMAIL_LENGTH || !EMAIL.matcher(email).matches()) {
+            error = "Invalid email";
+        } else if ((password == null) == (passwordHash == null)) {
+            error = "Exactly one of password and passwordHash is required";
+        } else if (passwordHash != null && !BCRYPT_HASH.matcher(passwordHash).matches()) {
+            error = "passwordHash is not a BCrypt hash";
+        }
+        if (error != null) {
+            run.reject(lineNumber, email.isEmpty() ? null : email, error);
+            return null;
+        }
+        return new Row(lineNumber, email, password, passwordHash);
+    }
+
+    private record Row(int line, String email, String password, String passwordHash) {
+    }
+
+    private record HashedBatch(List<Row> rows, List<Future<String>> hashes) {
+    }
+
+    private record Pending(Row row, User user) {
+    }
+
+    private record Saved(List<Pending> existing, List<User> users) {
+    }
+
+    private final class Run {
+
+        private final VerificationMode verification;
+        private final Consumer<UserImportEvent> events;
+        private final long started;
+        private long rows;
+        private long imported;
+        private long failed;
+
+        private Run(VerificationMode verification, Consumer<UserImportEvent> events, long started) {
+            this.verification = verification;
+            this.events = events;
+            this.started = started;
+        }
+
+        VerificationMode verification() {
+            return verification;
+        }
+
+        Consumer<UserImportEvent> events() {
+            return events;
+        }
+
+        void imported(long count) {
+            rows += count;
+            imported += count;
+            importedRows.add(count);
+        }
+
+        void reject(int line, String email, String error) {
+            rows++;
+            failed++;
+            failedRows.increment();
+            events.accept(UserImportEvent.builder()
+                    .type(UserImportEvent.ERROR)
+                    .line(line)
+                    .email(email)
+                    .error(error)
+                    .build());
+        }
+
+        UserImportEvent event(String type) {
+            return UserImportEvent.builder()
+                    .type(type)
+                    .rows(rows)
+                    .imported(imported)
+                    .failed(failed)
+                    .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                    .build();
+        }
+    }
+
+    // Header-mapped columns; fields may be double-quoted, with "" for a literal quote, but not span lines.
+    private record CsvColumns(int email, int password, int passwordHash) {
+
+        static CsvColumns parse(String header) {
+            List<String> names = split(header).stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            int email = names.indexOf("email");
+            int password = names.indexOf("password");
+            int passwordHash = Math.max(names.indexOf("password_hash"), names.indexOf("passwordhash"));
+            if (email < 0 || (password < 0 && passwordHash < 0)) {
+                throw new IllegalArgumentException("CSV header must name an email column and a password or password_hash column");
+            }
+            return new CsvColumns(email, password, passwordHash);
+        }
+
+        UserImportRow read(String line) {
+            List<String> fields = split(line);
+            return UserImportRow.builder()
+                    .email(field(fields, email))
+                    .password(field(fields, password))
+                    .passwordHash(field(fields, passwordHash))
+                    .build();
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
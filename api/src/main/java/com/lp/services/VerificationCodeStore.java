@@ -0,0 +1,32 @@
+package com.lp.services;
+
+import com.lp.enums.VerificationResult;
+
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Pending email verification codes, keyed by user id. Issuing a code replaces any earlier one for the same user;
+ * a code is consumed by the first successful verification and stops working after too many wrong guesses.
+ * Codes themselves are never kept, only a hash of each.
+ */
+public interface VerificationCodeStore {
+
+    String issue(Integer userId);
+
+    VerificationResult verify(Integer userId, String code);
+
+    SecureRandom RANDOM = new SecureRandom();
+
+    static String newCode() {
+        return String.valueOf(RANDOM.nextInt(900000) + 100000);
+    }
+
+    static byte[] digest(String code) {
+        return TokenHasher.sha256(code);
+    }
+
+    static boolean matches(byte[] expectedDigest, String code) {
+        return code != null && MessageDigest.isEqual(expectedDigest, digest(code.trim()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.lp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lp.dto.TokenClaims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+@Service
+public class VerifiedTokenCache {
+
+    private final Cache<TokenKey, TokenClaims> cache;
+
+    public VerifiedTokenCache(
+            @Value("${security.jwt.verified-cache.maximum-size}") long maximumSize
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached claims for this token, or runs the verifier and caches its result until the token's
+     * own expiry. Verification failures are never cached.
+     */
+    public TokenClaims get(String jwt, Function<String, TokenClaims> verifier) {
+        return cache.get(TokenKey.of(jwt), key -> verifier.apply(jwt));
+    }
+
+    public void evict(String jwt) {
+        cache.invalidate(TokenKey.of(jwt));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public Cache<?, ?> getCache() {
+        return cache;
+    }
+
+    // First 128 bits of the SHA-256 of the token: small enough to keep the key compact, wide enough to rule out collisions.
+    private record TokenKey(long high, long low) {
+
+        static TokenKey of(String jwt) {
+            ByteBuffer buffer = ByteBuffer.wrap(TokenHasher.sha256(jwt));
+            return new TokenKey(buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    private static class ExpireAtTokenExpiry implements Expiry<TokenKey, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(TokenKey key, TokenClaims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return 0;
+            }
+            return Math.max(0, Duration.between(Instant.now(), claims.getExpiration()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenKey key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(TokenKey key, TokenClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.lp;
+
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.RevokedAccessToken;
+import com.lp.enums.Role;
+import com.lp.repository.RevokedAccessTokenRepository;
+import com.lp.services.AccessTokenDenylist;
+import com.lp.services.AccessTokenService;
+import com.lp.services.JwtService;
+import com.lp.services.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A second AccessTokenService with its own denylist stands in for another node sharing the database.
+@SpringBootTest
+@ActiveProfiles("test")
+class AccessTokenRevocationTests {
+
+    private static final UserPrincipal PRINCIPAL = UserPrincipal.builder()
+            .id(7)
+            .email("user@example.com")
+            .password("{noop}unused")
+            .role(Role.USER)
+            .enabled(true)
+            .build();
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+    @Autowired
+    private AccessTokenDenylist accessTokenDenylist;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private RevokedAccessTokenRepository revokedAccessTokenRepository;
+
+    private AccessTokenDenylist otherDenylist;
+    private AccessTokenService otherNode;
+
+    @BeforeEach
+    void setUp() {
+        revokedAccessTokenRepository.deleteAll();
+        otherDenylist = new AccessTokenDenylist(1 << 16, 3);
+        otherNode = new AccessTokenService(jwtService, new VerifiedTokenCache(1000), otherDenylist, revokedAccessTokenRepository);
+    }
+
+    @Test
+    void revocationReachesOtherNodesOnTheirNextRefresh() {
+        String jwt = jwtService.generateAccessToken(PRINCIPAL);
+        String jti = jwtService.validateToken(jwt).getJti();
+
+        assertThat(accessTokenService.revoke(jwt)).isTrue();
+
+        assertThat(accessTokenDenylist.isRevoked(jti)).isTrue();
+        assertThat(otherDenylist.isRevoked(jti)).isFalse();
+        otherNode.refreshDenylist();
+        assertThat(otherDenylist.isRevoked(jti)).isTrue();
+    }
+
+    @Test
+    void revokingTheSameTokenTwiceIsHarmless() {
+        String jwt = jwtService.generateAccessToken(PRINCIPAL);
+
+        assertThat(accessTokenService.revoke(jwt)).isTrue();
+        assertThat(accessTokenService.revoke(jwt)).isTrue();
+
+        assertThat(revokedAccessTokenRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredRevocationsAreNeitherLoadedNorKept() {
+        revokedAccessTokenRepository.save(RevokedAccessToken.builder()
+                .jti("expired")
+                .revokedAt(Instant.now().minusSeconds(120))
+                .expiresAt(Instant.now().minusSeconds(60))
+                .build());
+        String jwt = jwtService.generateAccessToken(PRINCIPAL);
+        accessTokenService.revoke(jwt);
+
+        otherNode.refreshDenylist();
+        accessTokenService.purgeExpired();
+
+        assertThat(otherDenylist.size()).isEqualTo(1);
+        assertThat(revokedAccessTokenRepository.findAll())
+                .extracting(RevokedAccessToken::getJti)
+                .containsExactly(jwtService.validateToken(jwt).getJti());
+    }
+}
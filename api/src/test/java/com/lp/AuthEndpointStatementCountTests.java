@@ -0,0 +1,180 @@
+package com.lp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.entities.Token;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.CachedUserDetailsService;
+import com.lp.services.TokenHasher;
+import com.lp.support.JdbcExecutionCounter;
+import com.lp.support.SqlStatementCounter;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Pins the number of SQL statements the auth paths issue, so an extra query on a hot path fails the build.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthEndpointStatementCountTests {
+
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final Pattern SEQUENCE_CALL = Pattern.compile("next value for|nextval", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        userDetailsService.getCache().invalidateAll();
+        user = userRepository.save(User.builder()
+                .email("reader@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.USER)
+                .enabled(true)
+                .build());
+    }
+
+    @Test
+    void loginReadsTheUserOnceAndWritesTheRefreshToken() throws Exception {
+        // user principal, fresh session epoch, revoke earlier refresh tokens, insert the new one
+        assertStatements(login(), 4);
+    }
+
+    @Test
+    void authenticatedRequestHitsTheDatabaseOnlyOnACacheMiss() throws Exception {
+        String accessToken = accessToken(perform(login()));
+        userDetailsService.getCache().invalidateAll();
+
+        assertStatements(get("/api/v1/demo").header("Authorization", "Bearer " + accessToken), 1);
+        assertStatements(get("/api/v1/demo").header("Authorization", "Bearer " + accessToken), 0);
+    }
+
+    @Test
+    void refreshRotatesWithoutLoadingEntities() throws Exception {
+        Cookie refreshCookie = perform(login()).getResponse().getCookie("refreshToken");
+
+        // token and owner projection, retire the old token, insert the new one
+        assertStatements(get("/api/v1/auth/refresh-token").cookie(refreshCookie), 3);
+    }
+
+    @Test
+    void logoutRecordsTheAccessTokenAndRevokesWithASingleUpdate() throws Exception {
+        MvcResult login = perform(login());
+        String accessToken = accessToken(login);
+        Cookie refreshCookie = login.getResponse().getCookie("refreshToken");
+
+        // insert the revoked access-token jti, revoke the refresh token
+        assertStatements(post("/api/v1/auth/logout")
+                .header("Authorization", "Bearer " + accessToken)
+                .cookie(refreshCookie), 2);
+    }
+
+    @Test
+    void userEnabledReadsOneColumn() throws Exception {
+        assertStatements(get("/api/v1/auth/userEnabled").param("id", user.getId().toString()), 1);
+    }
+
+    @Test
+    void tokenInsertsInOneTransactionShareABatch() {
+        var tokens = IntStream.range(0, 20)
+                .mapToObj(i -> Token.builder()
+                        .user(user)
+                        .tokenHash(TokenHasher.sha256Hex("token-" + i))
+                        .tokenType(TokenType.REFRESH)
+                        .expiresAt(Instant.now().plusSeconds(60))
+                        .build())
+                .toList();
+
+        SqlStatementCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> tokenRepository.saveAll(tokens));
+
+        assertThat(SqlStatementCounter.statements())
+                .filteredOn(sql -> sql.startsWith("insert"))
+                .hasSize(1);
+    }
+
+    @Test
+    void userInsertsGoOutInBatchesWithOneSequenceCallPerBlock() {
+        var users = IntStream.range(0, 120)
+                .mapToObj(i -> User.builder()
+                        .email("batch" + i + "@example.com")
+                        .password("{noop}unused")
+                        .role(Role.USER)
+                        .build())
+                .toList();
+
+        SqlStatementCounter.reset();
+        JdbcExecutionCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+
+        // 120 rows at hibernate.jdbc.batch_size 50 are three executeBatch calls. The only single statements are
+        // sequence calls, at most one per 50 ids; how many depends on what is left of the block earlier tests used.
+        long sequenceCalls = SqlStatementCounter.statements().stream().filter(sql -> SEQUENCE_CALL.matcher(sql).find()).count();
+        assertThat(JdbcExecutionCounter.batches()).isEqualTo(3);
+        assertThat(JdbcExecutionCounter.statements()).isEqualTo(sequenceCalls).isLessThanOrEqualTo(3);
+    }
+
+    private RequestBuilder login() throws Exception {
+        return post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", user.getEmail(), "password", PASSWORD)));
+    }
+
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+    }
+
+    private void assertStatements(RequestBuilder request, int expected) throws Exception {
+        SqlStatementCounter.reset();
+        perform(request);
+        // Pooled sequence calls happen once per allocation block, not per request, so they are left out.
+        assertThat(SqlStatementCounter.statements())
+                .as("SQL issued")
+                .filteredOn(sql -> !SEQUENCE_CALL.matcher(sql).find())
+                .hasSize(expected);
+    }
+
+    private String accessToken(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("accessToken").asText();
+    }
+}
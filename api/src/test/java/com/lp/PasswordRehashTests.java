@@ -0,0 +1,64 @@
+package com.lp;
+
+import com.lp.dto.AuthenticationRequest;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The test profile hashes at the minimum cost of 4; here the calibrated cost is pinned one above it.
+@SpringBootTest(properties = {"security.password.min-strength=5", "security.password.max-strength=5"})
+@ActiveProfiles("test")
+class PasswordRehashTests {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void loginRehashesAPasswordStoredAtALowerCost() throws Exception {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        userRepository.save(User.builder().email("old@example.com").password(oldHash).role(Role.USER).enabled(true).build());
+
+        authService.authenticate(AuthenticationRequest.builder().email("old@example.com").password("secret").build(),
+                new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        String newHash = userRepository.findByEmail("old@example.com").orElseThrow().getPassword();
+        assertThat(newHash).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches("secret", newHash)).isTrue();
+    }
+
+    @Test
+    void loginKeepsAPasswordAlreadyAtTheCurrentCost() throws Exception {
+        String hash = passwordEncoder.encode("secret");
+        userRepository.save(User.builder().email("current@example.com").password(hash).role(Role.USER).enabled(true).build());
+
+        authService.authenticate(AuthenticationRequest.builder().email("current@example.com").password("secret").build(),
+                new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertThat(userRepository.findByEmail("current@example.com").orElseThrow().getPassword()).isEqualTo(hash);
+    }
+}
@@ -0,0 +1,85 @@
+package com.lp;
+
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenRotationTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        principal = UserPrincipal.from(userRepository.save(User.builder()
+                .email("rotation@example.com")
+                .password("{noop}secret")
+                .role(Role.USER)
+                .enabled(true)
+                .build()));
+    }
+
+    // Two tabs refreshing at once: one wins, and the loser must not take the winner's new token down with it.
+    @Test
+    void concurrentRotationsOfOneTokenKeepTheFamilyAlive() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            String token = refreshTokenService.issue(principal);
+            for (int round = 0; round < 10; round++) {
+                String current = token;
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                List<CompletableFuture<Optional<RefreshTokenService.Rotation>>> attempts = List.of(
+                        CompletableFuture.supplyAsync(() -> rotateAfter(barrier, current), executor),
+                        CompletableFuture.supplyAsync(() -> rotateAfter(barrier, current), executor));
+
+                List<RefreshTokenService.Rotation> winners = attempts.stream()
+                        .map(attempt -> attempt.orTimeout(30, TimeUnit.SECONDS).join())
+                        .flatMap(Optional::stream)
+                        .toList();
+
+                assertThat(winners).hasSize(1);
+                token = winners.getFirst().refreshToken();
+            }
+            assertThat(refreshTokenService.rotate(token)).isPresent();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<RefreshTokenService.Rotation> rotateAfter(CyclicBarrier barrier, String token) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return refreshTokenService.rotate(token);
+    }
+}
@@ -0,0 +1,118 @@
+package com.lp;
+
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.repository.UserRepository;
+import com.lp.services.AuthService;
+import com.lp.services.CachedUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Two embedded databases stand in for the primary and a replica; "replication" is an explicit snapshot copy.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "persistence.replica.urls=" + ReplicaRoutingTests.REPLICA_URL,
+        "persistence.replica.max-lag=1h"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate routed;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        primary.update("delete from token");
+        primary.update("delete from users");
+        userDetailsService.getCache().invalidateAll();
+        replicate();
+    }
+
+    @Test
+    void readOnlyQueriesAreServedByTheReplica() {
+        insertUser(1001, "stale@example.com", false);
+        replicate();
+        primary.update("update users set enabled = true where id = 1001");
+
+        assertThat(authService.isUserEnabled(1001)).isFalse();
+        // Read-write transactions always use the primary.
+        Boolean enabledOnPrimary = transactionTemplate.execute(status -> userRepository.findById(1001).orElseThrow().isEnabled());
+        assertThat(enabledOnPrimary).isTrue();
+    }
+
+    @Test
+    void usersWrittenByThisInstanceAreReadFromThePrimary() {
+        User user = userRepository.save(User.builder()
+                .email("fresh@example.com")
+                .password("{noop}secret")
+                .role(Role.USER)
+                .enabled(true)
+                .build());
+
+        // Not replicated yet, so only the primary has the row.
+        assertThat(userDetailsService.loadUserByUsername("fresh@example.com").getId()).isEqualTo(user.getId());
+        assertThat(authService.isUserEnabled(user.getId())).isTrue();
+    }
+
+    @Test
+    void aRequestThatWroteKeepsReadingFromThePrimary() {
+        insertUser(1002, "unreplicated@example.com", true);
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("unreplicated@example.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            transactionTemplate.executeWithoutResult(status -> routed.update("update users set role = 'ADMIN' where id = 1002"));
+
+            assertThat(authService.isUserEnabled(1002)).isTrue();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    // Written straight to the primary, past the entity listeners, like a write from another instance.
+    private void insertUser(int id, String email, boolean enabled) {
+        primary.update("insert into users (id, email, password, role, enabled) values (?, ?, '{noop}secret', 'USER', ?)",
+                id, email, enabled);
+    }
+
+    private void replicate() {
+        var script = primary.queryForList("script", String.class);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+    }
+}
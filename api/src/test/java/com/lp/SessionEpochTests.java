@@ -0,0 +1,131 @@
+package com.lp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SessionEpochTests {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = userRepository.save(User.builder()
+                .email("epoch@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.USER)
+                .enabled(true)
+                .build());
+    }
+
+    @Test
+    void logOutEverywhereEndsAccessAndRefreshTokens() throws Exception {
+        MvcResult login = login();
+        String accessToken = accessToken(login);
+        Cookie refreshCookie = login.getResponse().getCookie("refreshToken");
+        assertDemo(accessToken, true);
+
+        mockMvc.perform(post("/api/v1/sessions/invalidate").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        assertDemo(accessToken, false);
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/v1/auth/refresh-token").cookie(refreshCookie)))
+                .hasRootCauseMessage("Invalid refresh token");
+        assertDemo(accessToken(login()), true);
+    }
+
+    @Test
+    void adminCanEndOneUsersSessions() throws Exception {
+        String accessToken = accessToken(login());
+
+        mockMvc.perform(post("/api/v1/admin/users/{id}/sessions/invalidate", user.getId())
+                        .with(user("admin").authorities(() -> Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        assertDemo(accessToken, false);
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getSessionEpoch()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshTokenIsNeverAcceptedAsABearerToken() throws Exception {
+        String refreshToken = login().getResponse().getCookie("refreshToken").getValue();
+
+        mockMvc.perform(post("/api/v1/admin/users/{id}/sessions/invalidate", user.getId())
+                        .with(user("admin").authorities(() -> Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/demo").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/v1/demo").header("Authorization", "Bearer " + accessToken(login())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void globalEpochEndsEverySession() throws Exception {
+        String accessToken = accessToken(login());
+
+        mockMvc.perform(post("/api/v1/admin/sessions/invalidate-all")
+                        .with(user("admin").authorities(() -> Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        assertDemo(accessToken, false);
+        assertDemo(accessToken(login()), true);
+    }
+
+    private MvcResult login() throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", user.getEmail(), "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private void assertDemo(String accessToken, boolean allowed) throws Exception {
+        mockMvc.perform(get("/api/v1/demo").header("Authorization", "Bearer " + accessToken))
+                .andExpect(allowed ? status().isOk() : status().isForbidden());
+    }
+
+    private String accessToken(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray()).get("accessToken").asText();
+    }
+}
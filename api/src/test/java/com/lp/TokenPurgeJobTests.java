@@ -0,0 +1,90 @@
+package com.lp;
+
+import com.lp.entities.Token;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.TokenHasher;
+import com.lp.services.TokenPurgeJob;
+import com.lp.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"security.token-purge.batch-size=3", "security.token-purge.batch-pause=1ms"})
+@ActiveProfiles("test")
+class TokenPurgeJobTests {
+
+    @Autowired
+    private TokenPurgeJob purgeJob;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = userRepository.save(User.builder()
+                .email("purge@example.com")
+                .password("{noop}secret")
+                .role(Role.USER)
+                .enabled(true)
+                .build());
+    }
+
+    @Test
+    void deletesOnlyExpiredAndLongRevokedTokensInBatches() {
+        Instant now = Instant.now();
+        List<Integer> kept = new ArrayList<>();
+        List<Integer> purgeable = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            // Interleaved, so every batch has kept rows between the ones it deletes.
+            kept.add(save(now.plus(Duration.ofHours(1)), null));
+            purgeable.add(save(now.minus(Duration.ofHours(2)), null));
+            purgeable.add(save(now.plus(Duration.ofHours(1)), now.minus(Duration.ofDays(2))));
+        }
+        // Inside the retention windows: expired 10 minutes ago, revoked an hour ago.
+        kept.add(save(now.minus(Duration.ofMinutes(10)), null));
+        kept.add(save(now.plus(Duration.ofHours(1)), now.minus(Duration.ofHours(1))));
+
+        SqlStatementCounter.reset();
+        purgeJob.purge();
+
+        assertThat(tokenRepository.findAll()).extracting(Token::getId).containsExactlyInAnyOrderElementsOf(kept);
+        // 8 rows at 3 per batch: 3, 3 and a last short batch of 2 ends the run
+        List<String> deletes = SqlStatementCounter.statements().stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("delete"))
+                .toList();
+        assertThat(deletes).hasSize(3);
+        assertThat(purgeJob.getLastRunRows()).isEqualTo(purgeable.size());
+    }
+
+    private Integer save(Instant expiresAt, Instant revokedAt) {
+        return tokenRepository.save(Token.builder()
+                .user(user)
+                .tokenHash(TokenHasher.sha256Hex(UUID.randomUUID().toString()))
+                .tokenType(TokenType.REFRESH)
+                .revoked(revokedAt != null)
+                .revokedAt(revokedAt)
+                .expiresAt(expiresAt)
+                .family(UUID.randomUUID().toString())
+                .build()).getId();
+    }
+}
@@ -0,0 +1,127 @@
+package com.lp;
+
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.Token;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.RefreshTokenService;
+import com.lp.services.TokenHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRepositoryTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = saveUser("owner@example.com");
+    }
+
+    @Test
+    void refreshTokensAreStoredAndFoundByDigest() {
+        String refreshToken = refreshTokenService.issue(UserPrincipal.from(user));
+        String digest = TokenHasher.sha256Hex(refreshToken);
+
+        Token stored = tokenRepository.findAll().getFirst();
+        assertThat(stored.getTokenHash()).hasSize(64).isEqualTo(digest);
+        assertThat(tokenRepository.findByTokenHash(digest)).map(Token::getId).contains(stored.getId());
+        assertThat(tokenRepository.findByTokenHash(refreshToken)).isEmpty();
+        assertThat(tokenRepository.findRefreshTokenView(digest)).hasValueSatisfying(view -> {
+            assertThat(view.getTokenId()).isEqualTo(stored.getId());
+            assertThat(view.getEmail()).isEqualTo("owner@example.com");
+            assertThat(view.isRevoked()).isFalse();
+        });
+    }
+
+    @Test
+    void revokeFindsTheRowByDigest() {
+        String refreshToken = refreshTokenService.issue(UserPrincipal.from(user));
+
+        refreshTokenService.revoke(refreshToken);
+
+        Token stored = tokenRepository.findByTokenHash(TokenHasher.sha256Hex(refreshToken)).orElseThrow();
+        assertThat(stored.isRevoked()).isTrue();
+        assertThat(stored.getRevokedAt()).isNotNull();
+    }
+
+    @Test
+    void bulkRevokeChangesOnlyActiveRowsOfTheUser() {
+        Instant earlier = Instant.now().minusSeconds(3600).truncatedTo(ChronoUnit.MILLIS);
+        Token first = saveToken(user, TokenType.REFRESH, null);
+        Token second = saveToken(user, TokenType.REFRESH, null);
+        Token alreadyRevoked = saveToken(user, TokenType.REFRESH, earlier);
+        Token otherUsers = saveToken(saveUser("other@example.com"), TokenType.REFRESH, null);
+
+        assertThat(refreshTokenService.revokeAll(user.getId())).isEqualTo(2);
+
+        assertThat(reload(first).isRevoked()).isTrue();
+        assertThat(reload(second).isRevoked()).isTrue();
+        assertThat(reload(alreadyRevoked).getRevokedAt()).isEqualTo(earlier);
+        assertThat(reload(otherUsers).isRevoked()).isFalse();
+    }
+
+    @Test
+    void bulkRevokeAcrossUsersReportsTheRowsItChanged() {
+        User other = saveUser("other@example.com");
+        User untouched = saveUser("untouched@example.com");
+        saveToken(user, TokenType.REFRESH, null);
+        saveToken(user, TokenType.REFRESH, Instant.now().minusSeconds(60));
+        saveToken(other, TokenType.REFRESH, null);
+        saveToken(other, TokenType.REFRESH, null);
+        Token kept = saveToken(untouched, TokenType.REFRESH, null);
+
+        assertThat(refreshTokenService.revokeAllForUsers(List.of(user.getId(), other.getId()))).isEqualTo(3);
+        assertThat(refreshTokenService.revokeAllForUsers(List.of(user.getId(), other.getId()))).isZero();
+        assertThat(reload(kept).isRevoked()).isFalse();
+    }
+
+    private Token saveToken(User owner, TokenType type, Instant revokedAt) {
+        return tokenRepository.save(Token.builder()
+                .user(owner)
+                .tokenHash(TokenHasher.sha256Hex(UUID.randomUUID().toString()))
+                .tokenType(type)
+                .revoked(revokedAt != null)
+                .revokedAt(revokedAt)
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .family(UUID.randomUUID().toString())
+                .build());
+    }
+
+    private Token reload(Token token) {
+        return tokenRepository.findById(token.getId()).orElseThrow();
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .password("{noop}secret")
+                .role(Role.USER)
+                .enabled(true)
+                .build());
+    }
+}
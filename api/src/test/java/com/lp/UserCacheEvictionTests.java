@@ -0,0 +1,107 @@
+package com.lp;
+
+import com.lp.dto.UserPrincipal;
+import com.lp.dto.VerifyRequest;
+import com.lp.entities.User;
+import com.lp.enums.Role;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.AuthService;
+import com.lp.services.CachedUserDetailsService;
+import com.lp.services.VerificationCodeStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each change goes through the entity, so the listener's @PostUpdate and after-commit evictions are what is tested.
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCacheEvictionTests {
+
+    private static final String EMAIL = "cached@example.com";
+
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private VerificationCodeStore verificationCodeStore;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        user = userRepository.save(User.builder()
+                .email(EMAIL)
+                .password(passwordEncoder.encode("first password"))
+                .role(Role.USER)
+                .enabled(false)
+                .build());
+    }
+
+    @Test
+    void verifyingTheAccountEvictsTheDisabledSnapshot() throws Exception {
+        assertThat(cachedLoad().isEnabled()).isFalse();
+        VerifyRequest request = new VerifyRequest();
+        request.setVerificationCode(verificationCodeStore.issue(user.getId()));
+
+        authService.verifyUser(user.getId(), request, new MockHttpServletResponse());
+
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).isEnabled()).isTrue();
+    }
+
+    @Test
+    void roleChangeEvictsTheSnapshot() {
+        assertThat(cachedLoad().getRole()).isEqualTo(Role.USER);
+
+        update(entity -> entity.setRole(Role.ADMIN));
+
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).getAuthorities())
+                .extracting(Object::toString)
+                .containsExactly(Role.ADMIN.name());
+    }
+
+    @Test
+    void passwordChangeEvictsTheSnapshot() {
+        String oldHash = cachedLoad().getPassword();
+
+        update(entity -> entity.setPassword(passwordEncoder.encode("second password")));
+
+        String newHash = userDetailsService.loadUserByUsername(EMAIL).getPassword();
+        assertThat(newHash).isNotEqualTo(oldHash);
+        assertThat(passwordEncoder.matches("second password", newHash)).isTrue();
+    }
+
+    // Loads the user and checks the snapshot is now cached, so the assertions after a change prove an eviction.
+    private UserPrincipal cachedLoad() {
+        var principal = userDetailsService.loadUserByUsername(EMAIL);
+        assertThat(userDetailsService.getCache().getIfPresent(EMAIL)).isNotNull();
+        return principal;
+    }
+
+    private void update(Consumer<User> change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User entity = userRepository.findById(user.getId()).orElseThrow();
+            change.accept(entity);
+        });
+    }
+}
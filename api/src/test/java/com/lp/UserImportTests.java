@@ -0,0 +1,187 @@
+package com.lp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.entities.User;
+import com.lp.enums.OutboxStatus;
+import com.lp.enums.Role;
+import com.lp.repository.OutboxMessageRepository;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.VerificationCodeStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(authorities = "ADMIN")
+class UserImportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private OutboxMessageRepository outboxRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @MockitoSpyBean
+    private UserRepository userRepositorySpy;
+    @MockitoSpyBean
+    private VerificationCodeStore verificationCodeStore;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+        outboxRepository.deleteAll();
+        userRepository.save(User.builder()
+                .email("taken@example.com")
+                .password(passwordEncoder.encode("secret"))
+                .role(Role.USER)
+                .build());
+    }
+
+    @Test
+    void importsValidRowsAndReportsTheRest() throws Exception {
+        String migratedHash = new BCryptPasswordEncoder(4).encode("migrated");
+        String body = String.join("\n",
+                "{\"email\":\"ada@example.com\",\"password\":\"first\"}",
+                "{\"email\":\"grace@example.com\",\"passwordHash\":\"" + migratedHash + "\"}",
+                "{\"email\":\"not-an-email\",\"password\":\"x\"}",
+                "{\"email\":\"ada@example.com\",\"password\":\"again\"}",
+                "{\"email\":\"taken@example.com\",\"password\":\"x\"}",
+                "{\"email\":\"both@example.com\",\"password\":\"x\",\"passwordHash\":\"" + migratedHash + "\"}",
+                "not json");
+
+        List<JsonNode> events = importUsers("application/x-ndjson", "SKIP", body);
+
+        assertThat(errors(events)).containsExactly(
+                "3:Invalid email",
+                "6:Exactly one of password and passwordHash is required",
+                "7:Unreadable row",
+                "4:Duplicate email in import",
+                "5:Email already registered");
+        JsonNode summary = events.getLast();
+        assertThat(summary.get("type").asText()).isEqualTo("summary");
+        assertThat(summary.get("rows").asLong()).isEqualTo(7);
+        assertThat(summary.get("imported").asLong()).isEqualTo(2);
+        assertThat(summary.get("failed").asLong()).isEqualTo(5);
+
+        User ada = userRepository.findByEmail("ada@example.com").orElseThrow();
+        assertThat(ada.isEnabled()).isTrue();
+        assertThat(passwordEncoder.matches("first", ada.getPassword())).isTrue();
+        assertThat(userRepository.findByEmail("grace@example.com").orElseThrow().getPassword()).isEqualTo(migratedHash);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void csvImportQueuesVerificationMail() throws Exception {
+        String body = String.join("\n",
+                "email,password",
+                "lin@example.com,\"comma, and \"\"quotes\"\"\"",
+                "kay@example.com,plain");
+
+        List<JsonNode> events = importUsers("text/csv", "SEND", body);
+
+        assertThat(events.getLast().get("imported").asLong()).isEqualTo(2);
+        User lin = userRepository.findByEmail("lin@example.com").orElseThrow();
+        assertThat(lin.isEnabled()).isFalse();
+        assertThat(passwordEncoder.matches("comma, and \"quotes\"", lin.getPassword())).isTrue();
+        assertThat(outboxRepository.countByStatus(OutboxStatus.PENDING)).isEqualTo(2);
+    }
+
+    @Test
+    void verificationIsSentOnlyForCommittedUsersWhenABatchIsRetried() throws Exception {
+        // As if taken@example.com registered between the existence check and the commit.
+        Answer<?> repository = mockingDetails(userRepositorySpy).getMockCreationSettings().getDefaultAnswer();
+        doReturn(List.of()).doAnswer(repository).when(userRepositorySpy).findExistingEmails(any());
+        String body = String.join("\n",
+                "{\"email\":\"taken@example.com\",\"password\":\"x\"}",
+                "{\"email\":\"fresh@example.com\",\"password\":\"y\"}");
+
+        List<JsonNode> events = importUsers("application/x-ndjson", "SEND", body);
+
+        assertThat(errors(events)).containsExactly("1:Email already registered");
+        User fresh = userRepository.findByEmail("fresh@example.com").orElseThrow();
+        verify(verificationCodeStore).issue(fresh.getId());
+        verify(verificationCodeStore, times(1)).issue(any());
+        assertThat(outboxRepository.countByStatus(OutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    @Test
+    void largeImportsAreCommittedBatchByBatch() throws Exception {
+        String body = IntStream.range(0, 1_200)
+                .mapToObj(i -> "{\"email\":\"user" + i + "@example.com\",\"password\":\"password" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        List<JsonNode> events = importUsers("application/x-ndjson", "DEFER", body);
+
+        // 500, 1000 and 1200 rows, then the summary
+        assertThat(events).extracting(event -> event.get("type").asText())
+                .containsExactly("progress", "progress", "progress", "summary");
+        assertThat(events.get(1).get("imported").asLong()).isEqualTo(1_000);
+        assertThat(userRepository.count()).isEqualTo(1_201);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void csvWithoutAnEmailColumnIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/users/import")
+                        .contentType("text/csv")
+                        .content("name,password\nada,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> importUsers(String contentType, String verification, String body) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/admin/users/import")
+                        .param("verification", verification)
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private static List<String> errors(List<JsonNode> events) {
+        return events.stream()
+                .filter(event -> event.get("type").asText().equals("error"))
+                .map(event -> event.get("line").asInt() + ":" + event.get("error").asText())
+                .toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.lp.filters;
+
+import com.lp.config.ReplicaProperties;
+import com.lp.dto.UserPrincipal;
+import com.lp.enums.Role;
+import com.lp.repository.SessionEpochRepository;
+import com.lp.repository.SigningKeyRepository;
+import com.lp.repository.UserRepository;
+import com.lp.services.AccessTokenDenylist;
+import com.lp.services.AuthMetrics;
+import com.lp.services.JwtKeyRing;
+import com.lp.services.JwtService;
+import com.lp.services.ReadYourWrites;
+import com.lp.services.SessionEpochService;
+import com.lp.services.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTests {
+
+    private static final UserPrincipal PRINCIPAL = UserPrincipal.builder()
+            .id(7)
+            .email("user@example.com")
+            .password("{noop}unused")
+            .role(Role.USER)
+            .enabled(true)
+            .build();
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(1000);
+    private final AccessTokenDenylist denylist = new AccessTokenDenylist(1 << 16, 3);
+    private JwtService jwtService;
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SessionEpochService sessionEpochs = new SessionEpochService(mock(UserRepository.class),
+                mock(SessionEpochRepository.class), new ReadYourWrites(new ReplicaProperties()), Duration.ofMinutes(1), 1000);
+        JwtKeyRing keyRing = new JwtKeyRing(mock(SigningKeyRepository.class));
+        ReflectionTestUtils.setField(keyRing, "algorithm", "HS256");
+        ReflectionTestUtils.setField(keyRing, "secretKey", "c2VjcmV0LWtleS1mb3ItdGVzdHMtb25seS1zZWNyZXQta2V5LWZvci10ZXN0cw==");
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+        AuthMetrics metrics = new AuthMetrics(new SimpleMeterRegistry());
+        jwtService = new JwtService(keyRing, metrics, sessionEpochs);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        filter = new JwtAuthFilter(jwtService, userDetailsService, verifiedTokenCache, denylist, metrics, sessionEpochs);
+        ReflectionTestUtils.setField(filter, "stateless", false);
+        ReflectionTestUtils.setField(filter, "userLookupPaths", List.of());
+        when(userDetailsService.loadUserByUsername(PRINCIPAL.getEmail())).thenReturn(PRINCIPAL);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void revokedTokenIsRefusedEvenWhileItsClaimsAreCached() throws Exception {
+        String jwt = jwtService.generateAccessToken(PRINCIPAL);
+        assertThat(authenticate(jwt, "/api/v1/demo")).isNotNull();
+        assertThat(verifiedTokenCache.size()).isEqualTo(1);
+
+        var claims = jwtService.validateToken(jwt);
+        denylist.revoke(claims.getJti(), claims.getExpiration());
+
+        assertThat(authenticate(jwt, "/api/v1/demo")).isNull();
+        assertThat(verifiedTokenCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void statelessRequestAuthenticatesFromClaimsWithoutLoadingTheUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "userLookupPaths", List.of("/api/v1/users/**"));
+
+        Authentication authentication = authenticate(jwtService.generateAccessToken(PRINCIPAL), "/api/v1/demo");
+
+        assertThat(authentication.getPrincipal()).isInstanceOfSatisfying(UserPrincipal.class, principal -> {
+            assertThat(principal.getId()).isEqualTo(7);
+            assertThat(principal.getUsername()).isEqualTo("user@example.com");
+        });
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyElementsOf(PRINCIPAL.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void userLookupPathsStillLoadTheUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        ReflectionTestUtils.setField(filter, "userLookupPaths", List.of("/api/v1/users/**"));
+
+        Authentication authentication = authenticate(jwtService.generateAccessToken(PRINCIPAL), "/api/v1/users/me");
+
+        assertThat(authentication.getPrincipal()).isSameAs(PRINCIPAL);
+        verify(userDetailsService).loadUserByUsername("user@example.com");
+    }
+
+    private Authentication authenticate(String jwt, String path) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwt);
+        Authentication[] seen = new Authentication[1];
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen[0] = SecurityContextHolder.getContext().getAuthentication());
+        return seen[0];
+    }
+}
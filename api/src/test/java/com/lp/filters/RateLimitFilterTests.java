@@ -0,0 +1,147 @@
+package com.lp.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lp.config.RateLimitProperties;
+import com.lp.services.ClientAddressResolver;
+import com.lp.services.RateLimiter;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTests {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Endpoint login = new RateLimitProperties.Endpoint();
+        login.setPath("/api/v1/auth/login");
+        login.setAccountField("email");
+        login.setPerIp(limit(10));
+        login.setPerAccount(limit(2));
+        properties.getEndpoints().put("login", login);
+        filter = new RateLimitFilter(new RateLimiter(properties), properties, new ObjectMapper(), new ClientAddressResolver());
+    }
+
+    @Test
+    void limitsPerAccountFromJsonBodyAndReplaysBody() throws Exception {
+        String body = "{\"email\":\"User@Example.com\",\"password\":\"secret\"}";
+        for (int i = 0; i < 2; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletResponse response = send(body, "10.0.0." + i, chain);
+
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(chain.getRequest().getInputStream().readAllBytes()).asString().isEqualTo(body);
+        }
+
+        MockHttpServletResponse rejected = send(body.replace("User@", "user@"), "10.0.0.9", new MockFilterChain());
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(filter.getRejectedCounts()).containsEntry("login", 1L);
+    }
+
+    @Test
+    void limitsPerIpAcrossAccounts() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(send("{\"email\":\"u" + i + "@example.com\"}", "10.0.0.1", new MockFilterChain()).getStatus()).isEqualTo(200);
+        }
+
+        assertThat(send("{\"email\":\"new@example.com\"}", "10.0.0.1", new MockFilterChain()).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void readsOnlyTheTopLevelAccountField() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            String body = "{\"device\":{\"email\":\"other" + i + "@example.com\"},\"email\":\"user@example.com\",\"password\":";
+            assertThat(send(body, "10.0.0." + i, new MockFilterChain()).getStatus()).isEqualTo(200);
+        }
+
+        assertThat(send("{\"email\":\"user@example.com\"}", "10.0.0.9", new MockFilterChain()).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void bufferedBodySupportsNonBlockingReads() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setContent("{\"email\":\"a@example.com\"}".getBytes());
+        ServletInputStream in = new ReplayableBodyRequest(request, 1024).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] chunk = new byte[8];
+                while (in.isReady() && !in.isFinished()) {
+                    read.write(chunk, 0, in.read(chunk));
+                }
+                events.add("data");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(events).containsExactly("data", "done");
+        assertThat(read.toString()).isEqualTo("{\"email\":\"a@example.com\"}");
+        assertThat(in.isFinished()).isTrue();
+    }
+
+    @Test
+    void bodyOverTheLimitIsReplayedWhole() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setContent("0123456789".getBytes());
+        ReplayableBodyRequest replayable = new ReplayableBodyRequest(request, 4);
+
+        assertThat(replayable.getBufferedBody()).isNull();
+        assertThat(replayable.getInputStream().readAllBytes()).asString().isEqualTo("0123456789");
+    }
+
+    @Test
+    void ignoresOtherPaths() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    private MockHttpServletResponse send(String body, String ip, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes());
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static RateLimitProperties.Limit limit(long capacity) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(Duration.ofMinutes(1));
+        return limit;
+    }
+}
@@ -0,0 +1,46 @@
+package com.lp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessTokenDenylistTests {
+
+    private final AccessTokenDenylist denylist = new AccessTokenDenylist(1 << 16, 3);
+
+    @Test
+    void revokedJtiIsRejectedUntilItsTokenExpires() {
+        String jti = UUID.randomUUID().toString();
+        denylist.revoke(jti, Instant.now().plusSeconds(60));
+
+        assertThat(denylist.isRevoked(jti)).isTrue();
+        assertThat(denylist.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+
+    @Test
+    void sweepDropsExpiredEntriesAndKeepsLiveOnes() throws InterruptedException {
+        String expiring = UUID.randomUUID().toString();
+        String live = UUID.randomUUID().toString();
+        denylist.revoke(expiring, Instant.now().plusMillis(20));
+        denylist.revoke(live, Instant.now().plusSeconds(60));
+
+        Thread.sleep(40);
+        denylist.sweep();
+
+        assertThat(denylist.size()).isEqualTo(1);
+        assertThat(denylist.isRevoked(expiring)).isFalse();
+        assertThat(denylist.isRevoked(live)).isTrue();
+    }
+
+    @Test
+    void neverReportsFalseNegativesUnderLoad() {
+        var jtis = IntStream.range(0, 5000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        jtis.parallelStream().forEach(jti -> denylist.revoke(jti, Instant.now().plusSeconds(60)));
+
+        assertThat(jtis).allMatch(denylist::isRevoked);
+    }
+}
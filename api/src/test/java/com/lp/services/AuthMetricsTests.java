@@ -0,0 +1,37 @@
+package com.lp.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuthMetrics metrics = new AuthMetrics(registry);
+
+    @Test
+    void registersEveryStageUpFront() {
+        assertThat(registry.find(AuthMetrics.STAGE_TIMER).timers())
+                .hasSize(AuthMetrics.Stage.values().length * 2);
+        assertThat(registry.find(AuthMetrics.FILTER_TIMER).timers())
+                .hasSize(AuthMetrics.FilterResult.values().length);
+    }
+
+    @Test
+    void recordsOutcomeOfTimedWork() {
+        assertThat(metrics.time(AuthMetrics.Stage.TOKEN_SIGN, () -> "jwt")).isEqualTo("jwt");
+        assertThatThrownBy(() -> metrics.run(AuthMetrics.Stage.TOKEN_SIGN, () -> {
+            throw new IllegalStateException("no key");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(count("token_sign", "success")).isEqualTo(1);
+        assertThat(count("token_sign", "error")).isEqualTo(1);
+        assertThat(count("token_parse", "success")).isZero();
+    }
+
+    private long count(String stage, String outcome) {
+        return registry.get(AuthMetrics.STAGE_TIMER).tag("stage", stage).tag("outcome", outcome).timer().count();
+    }
+}
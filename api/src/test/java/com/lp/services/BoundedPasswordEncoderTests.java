@@ -0,0 +1,103 @@
+package com.lp.services;
+
+import com.lp.exceptions.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void rejectsOnceTheWorkersAndQueueAreFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(10), new AuthMetrics(new SimpleMeterRegistry()));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode(blockingPassword()));
+        awaitUntil(() -> encoder.getActiveCount() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        awaitUntil(() -> encoder.getQueueDepth() == 1);
+
+        assertThatThrownBy(() -> encoder.encode("rejected"))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .hasMessageContaining("Too many concurrent password checks");
+        assertThat(PasswordHashingRejectedException.class.getAnnotation(ResponseStatus.class).value())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        release.countDown();
+        assertThat(running.get()).startsWith("$2a$04$");
+        assertThat(queued.get()).startsWith("$2a$04$");
+    }
+
+    @Test
+    void givesUpAfterMaxWait() {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofMillis(50), new AuthMetrics(new SimpleMeterRegistry()));
+
+        assertThatThrownBy(() -> encoder.encode(blockingPassword()))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .hasMessageContaining("timed out");
+    }
+
+    @Test
+    void upgradesOnlyHashesBelowItsCost() {
+        encoder = new BoundedPasswordEncoder(5, 1, 1, Duration.ofSeconds(10), new AuthMetrics(new SimpleMeterRegistry()));
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("old"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("current"))).isFalse();
+    }
+
+    // Holds the hashing thread until the test releases it, so the pool stays saturated for as long as needed.
+    private CharSequence blockingPassword() {
+        return new CharSequence() {
+            @Override
+            public int length() {
+                return toString().length();
+            }
+
+            @Override
+            public char charAt(int index) {
+                return toString().charAt(index);
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return toString().subSequence(start, end);
+            }
+
+            @Override
+            public String toString() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "blocking";
+            }
+        };
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
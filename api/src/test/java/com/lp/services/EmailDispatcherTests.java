@@ -0,0 +1,85 @@
+package com.lp.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.lp.entities.OutboxMessage;
+import com.lp.enums.OutboxStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EmailDispatcherTests {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxService outboxService;
+    private JavaMailSenderImpl mailSender;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        outboxService = mock(EmailOutboxService.class);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getSmtp().getPort());
+    }
+
+    @Test
+    void deliversClaimedBatchOverPooledConnectionsAndDeletesIt() {
+        var batch = IntStream.rangeClosed(1, 5).mapToObj(this::message).toList();
+        when(outboxService.claimBatch(anyInt())).thenReturn(batch, List.of());
+
+        dispatcher(2).dispatch();
+
+        assertThat(smtp.getReceivedMessages()).hasSize(5);
+        verify(outboxService, atLeastOnce()).markSent(any());
+        verify(outboxService, never()).markFailed(any(), any());
+        assertThat(registry.get(AuthMetrics.EMAIL_DELIVERY_TIMER).timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    void schedulesRetryWhenServerIsUnreachable() {
+        mailSender.setPort(1);
+        var message = message(1);
+        when(outboxService.claimBatch(anyInt())).thenReturn(List.of(message), List.of());
+
+        dispatcher(1).dispatch();
+
+        assertThat(smtp.getReceivedMessages()).isEmpty();
+        verify(outboxService).markFailed(eq(message), any());
+        verify(outboxService, never()).markSent(argThat((Collection<Integer> ids) -> !ids.isEmpty()));
+    }
+
+    private EmailDispatcher dispatcher(int poolSize) {
+        var pool = new SmtpTransportPool(mailSender, poolSize, Duration.ofMinutes(1));
+        var emailService = new EmailService(mailSender, outboxService);
+        return new EmailDispatcher(outboxService, emailService, pool, new AuthMetrics(registry), 10, false);
+    }
+
+    private OutboxMessage message(int id) {
+        return OutboxMessage.builder()
+                .id(id)
+                .recipient("user" + id + "@example.com")
+                .subject("Account Verification")
+                .body("<p>" + id + "</p>")
+                .status(OutboxStatus.PENDING)
+                .createdAt(Instant.now())
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
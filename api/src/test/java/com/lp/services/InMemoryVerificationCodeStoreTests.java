@@ -0,0 +1,53 @@
+package com.lp.services;
+
+import com.lp.enums.VerificationResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryVerificationCodeStoreTests {
+
+    private final InMemoryVerificationCodeStore store = new InMemoryVerificationCodeStore(Duration.ofMinutes(15), 3, 100);
+
+    @Test
+    void codeIsSingleUse() {
+        String code = store.issue(1);
+
+        assertThat(store.verify(1, code)).isEqualTo(VerificationResult.VALID);
+        assertThat(store.verify(1, code)).isEqualTo(VerificationResult.NOT_FOUND);
+    }
+
+    @Test
+    void reissueReplacesEarlierCode() {
+        String first = store.issue(1);
+        String second = store.issue(1);
+
+        if (!first.equals(second)) {
+            assertThat(store.verify(1, first)).isEqualTo(VerificationResult.INVALID);
+        }
+        assertThat(store.verify(1, second)).isEqualTo(VerificationResult.VALID);
+    }
+
+    @Test
+    void locksAfterMaxAttempts() {
+        String code = store.issue(1);
+        String wrong = code.equals("100000") ? "100001" : "100000";
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.verify(1, wrong)).isEqualTo(VerificationResult.INVALID);
+        }
+
+        assertThat(store.verify(1, code)).isEqualTo(VerificationResult.TOO_MANY_ATTEMPTS);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void expiredCodeIsRejected() throws InterruptedException {
+        InMemoryVerificationCodeStore shortLived = new InMemoryVerificationCodeStore(Duration.ofMillis(10), 3, 100);
+        String code = shortLived.issue(1);
+        Thread.sleep(20);
+
+        assertThat(shortLived.verify(1, code)).isEqualTo(VerificationResult.EXPIRED);
+    }
+}
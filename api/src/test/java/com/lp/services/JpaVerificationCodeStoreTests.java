@@ -0,0 +1,61 @@
+package com.lp.services;
+
+import com.lp.entities.VerificationCode;
+import com.lp.enums.VerificationResult;
+import com.lp.repository.VerificationCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JpaVerificationCodeStoreTests {
+
+    private static final String HMAC_KEY = Base64.getEncoder().encodeToString("verification-test-key".getBytes());
+
+    private final List<VerificationCode> saved = new ArrayList<>();
+    private final VerificationCodeRepository repository = mock(VerificationCodeRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        when(repository.save(any())).thenAnswer(inv -> {
+            saved.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(repository.findFirstByUserIdOrderByIdDesc(any())).thenAnswer(inv -> Optional.of(saved.getLast()));
+        when(repository.recordAttempt(any(), anyInt())).thenReturn(1);
+        when(repository.consume(any(), any())).thenReturn(1);
+    }
+
+    // A plain SHA-256 of a six-digit code is reversed by trying all 900,000 of them.
+    @Test
+    void storedHashIsKeyedAndBoundToTheUser() {
+        JpaVerificationCodeStore store = store(HMAC_KEY);
+        String code = store.issue(1);
+        byte[] stored = saved.getLast().getCodeHash();
+
+        assertThat(stored).hasSize(32).isNotEqualTo(VerificationCodeStore.digest(code));
+        assertThat(store.verify(1, " " + code + " ")).isEqualTo(VerificationResult.VALID);
+        assertThat(store(Base64.getEncoder().encodeToString("another-key".getBytes())).verify(1, code)).isEqualTo(VerificationResult.INVALID);
+        assertThat(store.verify(2, code)).isEqualTo(VerificationResult.INVALID);
+    }
+
+    @Test
+    void requiresAnHmacKey() {
+        assertThatThrownBy(() -> store("")).hasMessageContaining("verification.code.hmac-key");
+    }
+
+    private JpaVerificationCodeStore store(String hmacKey) {
+        return new JpaVerificationCodeStore(repository, Duration.ofMinutes(15), 5, hmacKey);
+    }
+}
@@ -0,0 +1,142 @@
+package com.lp.services;
+
+import com.lp.config.ReplicaProperties;
+import com.lp.dto.UserPrincipal;
+import com.lp.entities.SigningKey;
+import com.lp.enums.Role;
+import com.lp.repository.SessionEpochRepository;
+import com.lp.repository.SigningKeyRepository;
+import com.lp.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyFactory;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtKeyRingTests {
+
+    private static final String KEY_ENCRYPTION_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final List<SigningKey> stored = new ArrayList<>();
+    private SigningKeyRepository repository;
+    private JwtKeyRing keyRing;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SigningKeyRepository.class);
+        when(repository.findByExpiresAtAfterOrderByActivatesAtDesc(any())).thenAnswer(inv -> stored.stream()
+                .filter(k -> k.getExpiresAt().isAfter(inv.getArgument(0)))
+                .sorted(Comparator.comparing(SigningKey::getActivatesAt).reversed())
+                .toList());
+        when(repository.save(any())).thenAnswer(inv -> {
+            stored.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+
+        keyRing = keyRing(KEY_ENCRYPTION_KEY);
+        keyRing.init();
+
+        jwtService = new JwtService(keyRing, new AuthMetrics(new SimpleMeterRegistry()), new SessionEpochService(mock(UserRepository.class),
+                mock(SessionEpochRepository.class), new ReadYourWrites(new ReplicaProperties()), Duration.ofMinutes(1), 1000));
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        jwtService.init();
+    }
+
+    @Test
+    void signsWithKidThatIsPublishedInJwks() {
+        String jwt = jwtService.generateAccessToken(principal());
+
+        String header = new String(Base64.getUrlDecoder().decode(jwt.substring(0, jwt.indexOf('.'))));
+        String kid = keyRing.getActiveKey().kid();
+        assertThat(header).contains("\"kid\":\"" + kid + "\"", "\"alg\":\"ES256\"");
+        assertThat(kid).isEqualTo(keyRing.getActiveKey().kid());
+        assertThat(keyRing.getJwks()).contains("\"kid\":\"" + kid + "\"").doesNotContain("\"d\"");
+        assertThat(jwtService.validateToken(jwt).getSubject()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void downstreamServiceVerifiesWithPublishedKeyAlone() {
+        String jwt = jwtService.generateAccessToken(principal());
+        String jwks = keyRing.getJwks();
+        String jwkJson = jwks.substring("{\"keys\":[".length(), jwks.length() - 2);
+        PublicJwk<?> jwk = (PublicJwk<?>) Jwks.parser().build().parse(jwkJson);
+
+        assertThat(Jwts.parser().verifyWith(jwk.toKey()).build().parseSignedClaims(jwt).getPayload().getSubject())
+                .isEqualTo("user@example.com");
+    }
+
+    @Test
+    void retiredKeyStillVerifiesUntilOverlapEnds() {
+        String oldToken = jwtService.generateAccessToken(principal());
+        String oldKid = keyRing.getActiveKey().kid();
+        String oldEtag = keyRing.getJwksEtag();
+
+        SigningKey current = stored.get(0);
+        current.setActivatesAt(Instant.now().minus(Duration.ofDays(7)));
+        current.setRetiresAt(Instant.now().plus(Duration.ofMinutes(5)));
+        keyRing.refresh();
+
+        assertThat(stored).hasSize(2);
+        assertThat(keyRing.getActiveKey().kid()).isEqualTo(oldKid);
+        assertThat(keyRing.getJwksEtag()).isNotEqualTo(oldEtag);
+
+        stored.get(1).setActivatesAt(Instant.now().minusSeconds(1));
+        keyRing.refresh();
+        assertThat(keyRing.getActiveKey().kid()).isNotEqualTo(oldKid);
+        assertThat(jwtService.validateToken(oldToken).getSubject()).isEqualTo("user@example.com");
+
+        current.setExpiresAt(Instant.now().minusSeconds(1));
+        keyRing.refresh();
+        assertThatThrownBy(() -> jwtService.validateToken(oldToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void privateKeysAreOnlyReadableWithTheKeyEncryptionKey() {
+        byte[] storedPrivateKey = stored.get(0).getPrivateKey();
+        assertThatThrownBy(() -> KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(storedPrivateKey)))
+                .isInstanceOf(InvalidKeySpecException.class);
+
+        byte[] otherKey = new byte[32];
+        Arrays.fill(otherKey, (byte) 1);
+        JwtKeyRing wrongKey = keyRing(Base64.getEncoder().encodeToString(otherKey));
+        assertThatThrownBy(wrongKey::init).hasMessageStartingWith("Unreadable private key");
+        JwtKeyRing missingKey = keyRing("");
+        assertThatThrownBy(missingKey::init).hasMessageContaining("key-encryption-key");
+    }
+
+    private JwtKeyRing keyRing(String keyEncryptionKey) {
+        JwtKeyRing ring = new JwtKeyRing(repository);
+        ReflectionTestUtils.setField(ring, "algorithm", "ES256");
+        ReflectionTestUtils.setField(ring, "secretKey", "");
+        ReflectionTestUtils.setField(ring, "rotationInterval", Duration.ofDays(7));
+        ReflectionTestUtils.setField(ring, "prepublish", Duration.ofHours(1));
+        ReflectionTestUtils.setField(ring, "overlap", Duration.ofHours(26));
+        ReflectionTestUtils.setField(ring, "keyEncryptionKey", keyEncryptionKey);
+        return ring;
+    }
+
+    private static UserPrincipal principal() {
+        return UserPrincipal.builder().id(1).email("user@example.com").role(Role.USER).enabled(true).build();
+    }
+}
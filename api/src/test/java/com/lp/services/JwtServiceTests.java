@@ -0,0 +1,104 @@
+package com.lp.services;
+
+import com.lp.config.ReplicaProperties;
+import com.lp.dto.TokenClaims;
+import com.lp.dto.UserPrincipal;
+import com.lp.enums.Role;
+import com.lp.enums.TokenType;
+import com.lp.repository.SessionEpochRepository;
+import com.lp.repository.SigningKeyRepository;
+import com.lp.repository.UserRepository;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class JwtServiceTests {
+
+    private static final UserPrincipal PRINCIPAL = UserPrincipal.builder()
+            .id(7)
+            .email("user@example.com")
+            .password("{noop}unused")
+            .role(Role.ADMIN)
+            .enabled(true)
+            .build();
+
+    private final SessionEpochService sessionEpochs = new SessionEpochService(mock(UserRepository.class),
+            mock(SessionEpochRepository.class), new ReadYourWrites(new ReplicaProperties()), Duration.ofMinutes(1), 1000);
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(mock(SigningKeyRepository.class));
+        ReflectionTestUtils.setField(keyRing, "algorithm", "HS256");
+        ReflectionTestUtils.setField(keyRing, "secretKey", "c2VjcmV0LWtleS1mb3ItdGVzdHMtb25seS1zZWNyZXQta2V5LWZvci10ZXN0cw==");
+        keyRing.init();
+        jwtService = new JwtService(keyRing, new AuthMetrics(new SimpleMeterRegistry()), sessionEpochs);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 120_000L);
+        jwtService.init();
+    }
+
+    @Test
+    void accessTokenClaimsRoundTrip() {
+        sessionEpochs.remember(7, 3);
+
+        String jwt = jwtService.generateAccessToken(PRINCIPAL);
+        TokenClaims claims = jwtService.validateToken(jwt);
+
+        assertThat(claims.getSubject()).isEqualTo("user@example.com");
+        assertThat(claims.getUserId()).isEqualTo(7);
+        assertThat(claims.getRole()).isEqualTo(Role.ADMIN);
+        assertThat(claims.getTokenType()).isEqualTo(TokenType.ACCESS);
+        assertThat(claims.getSessionEpoch()).isEqualTo(3);
+        assertThat(claims.getJti()).isNotBlank();
+        assertThat(claims.getExpiration()).isCloseTo(Instant.now().plusSeconds(60), within(Duration.ofSeconds(2)));
+        assertThat(claims.isRefreshToken()).isFalse();
+        assertThat(jwtService.isTokenValid(claims, PRINCIPAL)).isTrue();
+    }
+
+    @Test
+    void refreshTokenCarriesOnlyItsType() {
+        TokenClaims claims = jwtService.validateToken(jwtService.generateRefreshToken(PRINCIPAL));
+
+        assertThat(claims.getSubject()).isEqualTo("user@example.com");
+        assertThat(claims.getRole()).isNull();
+        assertThat(claims.isRefreshToken()).isTrue();
+        assertThat(claims.getExpiration()).isCloseTo(Instant.now().plusSeconds(120), within(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String jwt = jwtService.generateAccessToken(PRINCIPAL);
+        String[] parts = jwt.split("\\.");
+        // Same signature over a payload that claims another user.
+        String forgedPayload = jwtService.generateAccessToken(UserPrincipal.builder()
+                .id(8).email("admin@example.com").password("{noop}unused").role(Role.SUPERADMIN).enabled(true).build())
+                .split("\\.")[1];
+        char last = parts[2].charAt(parts[2].length() - 2);
+        String flippedSignature = parts[2].substring(0, parts[2].length() - 2) + (last == 'A' ? 'B' : 'A') + parts[2].charAt(parts[2].length() - 1);
+
+        assertThatThrownBy(() -> jwtService.validateToken(parts[0] + "." + forgedPayload + "." + parts[2]))
+                .isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> jwtService.validateToken(parts[0] + "." + parts[1] + "." + flippedSignature))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String jwt = jwtService.buildToken(Map.of(), PRINCIPAL, -1_000);
+
+        assertThatThrownBy(() -> jwtService.validateToken(jwt)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.lp.services;
+
+import com.lp.exceptions.LoginLockedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginAttemptServiceTests {
+
+    private final LoginAttemptService service = new LoginAttemptService(
+            1000, Duration.ofMinutes(15), 3, 5, Duration.ofMinutes(1), Duration.ofMinutes(3), Duration.ofHours(1));
+
+    @Test
+    void locksAccountAfterThresholdRegardlessOfCase() {
+        for (int i = 0; i < 3; i++) {
+            assertThatCode(() -> service.checkAllowed("user@example.com", "10.0.0.1")).doesNotThrowAnyException();
+            service.recordFailure(i % 2 == 0 ? "user@example.com" : "USER@example.com", "10.0.0.1");
+        }
+
+        assertThat(service.isLocked("user@example.com")).isTrue();
+        assertThatThrownBy(() -> service.checkAllowed("User@Example.com", "10.0.0.2"))
+                .isInstanceOf(LoginLockedException.class)
+                .satisfies(e -> assertThat(((LoginLockedException) e).getRetryAfter()).isPositive());
+        assertThat(service.isLocked("other@example.com")).isFalse();
+    }
+
+    @Test
+    void locksSourceSprayingManyAccounts() {
+        for (int i = 0; i < 5; i++) {
+            service.recordFailure("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> service.checkAllowed("fresh@example.com", "10.0.0.1")).isInstanceOf(LoginLockedException.class);
+        assertThatCode(() -> service.checkAllowed("fresh@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void successResetsAccount() {
+        service.recordFailure("user@example.com", null);
+        service.recordFailure("user@example.com", null);
+        service.recordSuccess("user@example.com");
+        service.recordFailure("user@example.com", null);
+
+        assertThat(service.isLocked("user@example.com")).isFalse();
+    }
+}
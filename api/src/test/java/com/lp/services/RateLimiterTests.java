@@ -0,0 +1,61 @@
+package com.lp.services;
+
+import com.lp.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTests {
+
+    private final RateLimiter rateLimiter = new RateLimiter(new RateLimitProperties());
+
+    @Test
+    void grantsBurstThenRejectsWithWaitUntilNextPermit() {
+        RateLimitProperties.Limit limit = limit(5, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("k", limit)).isZero();
+        }
+        long wait = rateLimiter.tryAcquire("k", limit);
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(12).toNanos());
+        assertThat(rateLimiter.tryAcquire("other", limit)).isZero();
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        RateLimitProperties.Limit limit = limit(2, Duration.ofMillis(100));
+        rateLimiter.tryAcquire("k", limit);
+        rateLimiter.tryAcquire("k", limit);
+        assertThat(rateLimiter.tryAcquire("k", limit)).isPositive();
+
+        Thread.sleep(60);
+
+        assertThat(rateLimiter.tryAcquire("k", limit)).isZero();
+    }
+
+    @Test
+    void neverGrantsMoreThanCapacityUnderContention() {
+        RateLimitProperties.Limit limit = limit(100, Duration.ofHours(1));
+        AtomicInteger granted = new AtomicInteger();
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> {
+            if (rateLimiter.tryAcquire("hot", limit) == 0) {
+                granted.incrementAndGet();
+            }
+        });
+
+        assertThat(granted.get()).isEqualTo(100);
+    }
+
+    private static RateLimitProperties.Limit limit(long capacity, Duration period) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lp.services;
+
+import com.lp.dto.RefreshTokenView;
+import com.lp.enums.Role;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Presenting a refresh token that was already rotated away; an opaque token skips the JWT check.
+class RefreshTokenServiceTests {
+
+    private static final String TOKEN = "opaque-refresh-token";
+    private static final String FAMILY = "3f2b7c1e-family";
+
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(tokenRepository, mock(UserRepository.class), mock(JwtService.class),
+                new AuthMetrics(new SimpleMeterRegistry()), mock(SessionEpochService.class));
+        ReflectionTestUtils.setField(refreshTokenService, "reuseGrace", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void reusingARetiredTokenRevokesItsWholeFamily() {
+        when(tokenRepository.findRefreshTokenView(TokenHasher.sha256Hex(TOKEN)))
+                .thenReturn(Optional.of(retiredAt(Instant.now().minus(Duration.ofMinutes(5)))));
+
+        assertThat(refreshTokenService.rotate(TOKEN)).isEmpty();
+
+        verify(tokenRepository).revokeFamily(eq(FAMILY), any(Instant.class));
+        verify(tokenRepository, never()).retire(any(), any());
+    }
+
+    @Test
+    void tokenRetiredWithinTheGraceWindowIsRefusedWithoutRevokingTheFamily() {
+        when(tokenRepository.findRefreshTokenView(TokenHasher.sha256Hex(TOKEN)))
+                .thenReturn(Optional.of(retiredAt(Instant.now().minusSeconds(2))));
+
+        assertThat(refreshTokenService.rotate(TOKEN)).isEmpty();
+
+        verify(tokenRepository, never()).revokeFamily(any(), any());
+        verify(tokenRepository, never()).retire(any(), any());
+    }
+
+    private static RefreshTokenView retiredAt(Instant revokedAt) {
+        return new RefreshTokenView(1, true, revokedAt, Instant.now().plusSeconds(3600), FAMILY, 0, 0,
+                7, "user@example.com", Role.USER, true, 0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.lp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+    @Test
+    void firesEachEntryAtItsDeadlineAcrossLevels() {
+        long start = 1_000_000;
+        TimingWheel<Long> wheel = new TimingWheel<>(1, start);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long deadline = start + 1 + random.nextInt(300_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long now = start; now <= start + 300_097; now += 97) {
+            long at = now;
+            wheel.advance(now, deadline -> fired.add(new long[]{deadline, at}));
+        }
+
+        assertThat(fired).hasSize(deadlines.size());
+        assertThat(fired).allSatisfy(f -> assertThat(f[1]).isBetween(f[0], f[0] + 96));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule("late", 5_000);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(10_999, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(11_000, fired::add);
+        assertThat(fired).containsExactly("late");
+    }
+}
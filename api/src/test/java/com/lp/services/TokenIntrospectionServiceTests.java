@@ -0,0 +1,131 @@
+package com.lp.services;
+
+import com.lp.dto.RefreshTokenStatus;
+import com.lp.dto.TokenIntrospection;
+import com.lp.dto.UserPrincipal;
+import com.lp.enums.Role;
+import com.lp.config.ReplicaProperties;
+import com.lp.repository.SessionEpochRepository;
+import com.lp.repository.SigningKeyRepository;
+import com.lp.repository.TokenRepository;
+import com.lp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenIntrospectionServiceTests {
+
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final AccessTokenDenylist denylist = new AccessTokenDenylist(1 << 16, 3);
+    private final SessionEpochService sessionEpochs = new SessionEpochService(mock(UserRepository.class),
+            mock(SessionEpochRepository.class), new ReadYourWrites(new ReplicaProperties()), Duration.ofMinutes(1), 1000);
+    private JwtService jwtService;
+    private TokenIntrospectionService introspectionService;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(mock(SigningKeyRepository.class));
+        ReflectionTestUtils.setField(keyRing, "algorithm", "HS256");
+        ReflectionTestUtils.setField(keyRing, "secretKey", "c2VjcmV0LWtleS1mb3ItdGVzdHMtb25seS1zZWNyZXQta2V5LWZvci10ZXN0cw==");
+        keyRing.init();
+        jwtService = new JwtService(keyRing, new AuthMetrics(new SimpleMeterRegistry()), sessionEpochs);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 60_000L);
+        jwtService.init();
+
+        introspectionService = new TokenIntrospectionService(
+                jwtService, new VerifiedTokenCache(1000), denylist, tokenRepository, sessionEpochs, 100, 2);
+    }
+
+    @Test
+    void returnsOneResultPerTokenInRequestOrder() {
+        List<String> tokens = IntStream.range(0, 20)
+                .mapToObj(i -> i % 3 == 0 ? "garbage." + i : jwtService.generateAccessToken(principal(i)))
+                .toList();
+
+        List<TokenIntrospection> results = introspectionService.introspect(tokens);
+
+        assertThat(results).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            assertThat(results.get(i).isActive()).isEqualTo(i % 3 != 0);
+            if (i % 3 != 0) {
+                assertThat(results.get(i).getUid()).isEqualTo(i);
+                assertThat(results.get(i).getTokenType()).isEqualTo("access_token");
+            }
+        }
+    }
+
+    @Test
+    void deniedAccessTokenIsInactive() {
+        String jwt = jwtService.generateAccessToken(principal(1));
+        denylist.revoke(jwtService.validateToken(jwt).getJti(), Instant.now().plusSeconds(60));
+
+        assertThat(introspectionService.introspect(List.of(jwt)).get(0).isActive()).isFalse();
+    }
+
+    @Test
+    void accessTokenFromAnEarlierSessionEpochIsInactive() {
+        String jwt = jwtService.generateAccessToken(principal(1));
+        sessionEpochs.remember(1, 1);
+
+        assertThat(introspectionService.introspect(List.of(jwt)).get(0).isActive()).isFalse();
+        assertThat(introspectionService.introspect(List.of(jwtService.generateAccessToken(principal(1)))).get(0).isActive()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refreshTokensAreResolvedInOneQuery() {
+        String live = jwtService.generateRefreshToken(principal(1));
+        String revoked = jwtService.generateRefreshToken(principal(1));
+        String opaque = "opaque-token-without-dots";
+        String ended = "opaque-token-from-an-earlier-epoch";
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        when(tokenRepository.findRefreshTokenStatuses(anyCollection())).thenAnswer(inv -> {
+            List<RefreshTokenStatus> rows = new ArrayList<>();
+            for (String hash : (Collection<String>) inv.getArgument(0)) {
+                if (hash.equals(TokenHasher.sha256Hex("unknown"))) {
+                    continue;
+                }
+                boolean isRevoked = hash.equals(TokenHasher.sha256Hex(revoked));
+                // Issued before the owner's session epoch was bumped.
+                int tokenEpoch = hash.equals(TokenHasher.sha256Hex(ended)) ? 0 : 1;
+                String email = hash.equals(TokenHasher.sha256Hex(opaque)) ? "user-2@example.com" : "user-1@example.com";
+                rows.add(new RefreshTokenStatus(hash, isRevoked, expiresAt, tokenEpoch, 0, 1, email, Role.USER, true, 1));
+            }
+            return rows;
+        });
+
+        List<TokenIntrospection> results = introspectionService.introspect(List.of(live, revoked, opaque, ended, "unknown"));
+
+        verify(tokenRepository, times(1)).findRefreshTokenStatuses(anyCollection());
+        assertThat(results).extracting(TokenIntrospection::isActive).containsExactly(true, false, true, false, false);
+        assertThat(results.get(0).getTokenType()).isEqualTo("refresh_token");
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        List<String> tokens = IntStream.range(0, 101).mapToObj(String::valueOf).toList();
+
+        assertThatThrownBy(() -> introspectionService.introspect(tokens)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static UserPrincipal principal(int id) {
+        return UserPrincipal.builder().id(id).email("user-" + id + "@example.com").role(Role.USER).enabled(true).build();
+    }
+}
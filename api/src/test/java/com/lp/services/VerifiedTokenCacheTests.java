@@ -0,0 +1,77 @@
+package com.lp.services;
+
+import com.lp.dto.TokenClaims;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTests {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void verifiesOnceUntilTheTokenExpires() throws Exception {
+        Function<String, TokenClaims> verifier = counting(TokenClaims.builder()
+                .subject("user@example.com")
+                .expiration(Instant.now().plusMillis(300))
+                .build());
+
+        cache.get("token", verifier);
+        cache.get("token", verifier);
+        assertThat(verifications).hasValue(1);
+
+        Thread.sleep(400);
+        cache.get("token", verifier);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void alreadyExpiredClaimsAreNotKept() {
+        Function<String, TokenClaims> verifier = counting(TokenClaims.builder()
+                .expiration(Instant.now().minusSeconds(1))
+                .build());
+
+        cache.get("token", verifier);
+        cache.get("token", verifier);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void failedVerificationIsNotCached() {
+        Function<String, TokenClaims> failing = jwt -> {
+            verifications.incrementAndGet();
+            throw new IllegalArgumentException("bad signature");
+        };
+
+        assertThatThrownBy(() -> cache.get("forged", failing)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.get("forged", failing)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(verifications).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void tokensAreCachedIndependently() {
+        cache.get("first", counting(TokenClaims.builder().subject("a").expiration(Instant.now().plusSeconds(60)).build()));
+        TokenClaims second = cache.get("second", counting(TokenClaims.builder().subject("b").expiration(Instant.now().plusSeconds(60)).build()));
+
+        assertThat(second.getSubject()).isEqualTo("b");
+        assertThat(verifications).hasValue(2);
+        cache.evict("first");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    private Function<String, TokenClaims> counting(TokenClaims claims) {
+        return jwt -> {
+            verifications.incrementAndGet();
+            return claims;
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.lp.support;
+
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the JDBC round trips Hibernate makes on the current thread: single statement executions and batch
+ * executions. Unlike {@link SqlStatementCounter}, a batch of inserts sent in several executeBatch calls counts each.
+ */
+public class JdbcExecutionCounter implements SessionEventListener {
+
+    private static final ThreadLocal<AtomicInteger> STATEMENTS = ThreadLocal.withInitial(AtomicInteger::new);
+    private static final ThreadLocal<AtomicInteger> BATCHES = ThreadLocal.withInitial(AtomicInteger::new);
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        STATEMENTS.get().incrementAndGet();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        BATCHES.get().incrementAndGet();
+    }
+
+    public static void reset() {
+        STATEMENTS.get().set(0);
+        BATCHES.get().set(0);
+    }
+
+    public static int statements() {
+        return STATEMENTS.get().get();
+    }
+
+    public static int batches() {
+        return BATCHES.get().get();
+    }
+}